@@ -0,0 +1,104 @@
+package zzw.content.mechanics.torque.graph;
+
+import org.openjdk.jmh.annotations.*;
+import zzw.content.mechanics.torque.graph.GraphFixture.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Topology operations: batched rebuild on placement, graph merge and removal.
+ * <p>
+ * Every invocation mutates the layout, so the fixture is rebuilt before each one; keep {@code size} large enough
+ * for the measured call to dominate the timer overhead. Run with {@code -prof gc} for allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark{
+    @Param({"chain", "grid", "tree"})
+    public Shape shape;
+    @Param({"256", "4096"})
+    public int size;
+
+    @Setup(Level.Trial)
+    public void setupTrial(){
+        GraphFixture.headless();
+    }
+
+    /** Every block placed in one tick: one {@link GraphRebuildQueue} flush links the whole layout. */
+    @Benchmark
+    public Object rebuildAll(PlacedState state){
+        GraphRebuildQueue.flush();
+        return state.fixture.torque();
+    }
+
+    /** A column placed between two existing graphs: rebuilds the column and merges both sides. */
+    @Benchmark
+    public Object rebuildBridge(SplitState state){
+        state.fixture.bridge();
+        GraphRebuildQueue.flush();
+        return state.fixture.torque();
+    }
+
+    /** {@link BaseGraph#mergeGraph(BaseGraph)} of two graphs of about equal size. */
+    @Benchmark
+    public Object mergeGraph(SplitState state){
+        state.torqueA.mergeGraph(state.torqueB);
+        state.heatA.mergeGraph(state.heatB);
+        return state.torqueA;
+    }
+
+    /** Removal of a cut vertex (chain, tree) or of the grid centre, which forces a full split search. */
+    @Benchmark
+    public Object removeArticulation(BuiltState state){
+        state.fixture.remove(state.fixture.articulation());
+        return state.fixture.torque();
+    }
+
+    /** Removal of the last placed block, a leaf in every shape. */
+    @Benchmark
+    public Object removeLeaf(BuiltState state){
+        state.fixture.remove(state.fixture.leaf());
+        return state.fixture.torque();
+    }
+
+    @State(Scope.Thread)
+    public static class PlacedState{
+        GraphFixture fixture;
+
+        @Setup(Level.Invocation)
+        public void setup(GraphBenchmark bench){
+            fixture = new GraphFixture(bench.shape, bench.size).place();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BuiltState{
+        GraphFixture fixture;
+
+        @Setup(Level.Invocation)
+        public void setup(GraphBenchmark bench){
+            fixture = new GraphFixture(bench.shape, bench.size).build();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SplitState{
+        GraphFixture fixture;
+        TorqueGraph torqueA, torqueB;
+        HeatGraph heatA, heatB;
+
+        @Setup(Level.Invocation)
+        public void setup(GraphBenchmark bench){
+            fixture = new GraphFixture(bench.shape, bench.size).split().build();
+            int last = fixture.leaf();
+            torqueA = fixture.torque(0);
+            torqueB = fixture.torque(last);
+            heatA = fixture.heat(0);
+            heatB = fixture.heat(last);
+        }
+    }
+}
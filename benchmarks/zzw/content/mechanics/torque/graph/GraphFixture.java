@@ -0,0 +1,184 @@
+package zzw.content.mechanics.torque.graph;
+
+import arc.*;
+import arc.struct.*;
+import arc.util.*;
+import mindustry.*;
+import mindustry.core.*;
+import mindustry.game.*;
+import mindustry.world.*;
+import zzw.content.mechanics.torque.blocks.*;
+import zzw.content.mechanics.torque.blocks.GraphBlock.*;
+import zzw.content.mechanics.torque.graphs.*;
+import zzw.content.mechanics.torque.modules.*;
+
+/**
+ * Headless layouts of graph blocks for the benchmarks.
+ * <p>
+ * Builds a bare {@link World} of empty tiles and places 1x1 four-way torque + heat blocks into it without going
+ * through {@code Tile.setBlock}, so no renderer, content load or game state is needed. Modules are connected through
+ * the real {@link GraphRebuildQueue}, exactly as placement does in game.
+ */
+public class GraphFixture{
+    public enum Shape{
+        /** A straight line; every inner node is an articulation point. */
+        chain,
+        /** A square grid; full of cycles, so no single removal splits it. */
+        grid,
+        /** A comb: a spine along the bottom row with a branch rising from every spine node. */
+        tree
+    }
+
+    static GraphBlock block;
+
+    public final Shape shape;
+    public final int width, height;
+    /** Column left empty by {@link #split()}, so the layout forms two separate graphs; -1 for none. */
+    int gapX = -1;
+    public final Seq<GraphBuild> builds = new Seq<>();
+    /** Placement order positions, packed as {@code x + y * width}. */
+    public final IntSeq positions = new IntSeq();
+
+    public GraphFixture(Shape shape, int size){
+        this.shape = shape;
+        if(shape == Shape.chain){
+            width = size;
+            height = 1;
+        }else{
+            int side = Math.max(2, (int)Math.ceil(Math.sqrt(size)));
+            width = side;
+            height = side;
+        }
+        layout();
+    }
+
+    void layout(){
+        positions.clear();
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                if(x == gapX || (shape == Shape.tree && y > 0 && x % 2 == 1)) continue;
+                positions.add(x + y * width);
+            }
+        }
+    }
+
+    /** Leaves the middle column empty, so that {@link #build()} produces two graphs of about equal size. */
+    public GraphFixture split(){
+        gapX = width / 2;
+        layout();
+        return this;
+    }
+
+    /** Places the blocks of the column left empty by {@link #split()}, queueing them for a rebuild. */
+    public void bridge(){
+        for(int y = 0; y < height; y++){
+            if(shape == Shape.tree && y > 0 && gapX % 2 == 1) continue;
+            builds.add(place(gapX, y));
+        }
+    }
+
+    /** Sets up the static engine state the graph code touches. Safe to call more than once. */
+    public static void headless(){
+        if(block != null) return;
+        Core.bundle = I18NBundle.createEmptyBundle();
+        Vars.content = new ContentLoader();
+        Vars.state = new GameState();
+        Vars.world = new World();
+        block = new GraphBlock("bench-graph-node"){{
+            size = 1;
+            rotate = false;
+            addGraph(new GraphTorque(0.05f, 5f).setAccept(1, 1, 1, 1));
+            addGraph(new GraphHeat().setAccept(1, 1, 1, 1));
+        }};
+    }
+
+    /** Clears the world and places every block, leaving the rebuild queue unflushed. */
+    public GraphFixture place(){
+        headless();
+        GraphRebuildQueue.clear();
+        GraphScheduler.clear();
+        builds.clear();
+        Vars.world.tiles = new Tiles(width, height);
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++) Vars.world.tiles.set(x, y, new Tile(x, y));
+        }
+        for(int i = 0; i < positions.size; i++){
+            int pos = positions.get(i);
+            builds.add(place(pos % width, pos / width));
+        }
+        return this;
+    }
+
+    GraphBuild place(int x, int y){
+        Tile tile = Vars.world.tile(x, y);
+        GraphBuild build = (GraphBuild)block.newBuilding();
+        build.create(block, Team.sharded);
+        build.tile = tile;
+        build.rotation = 0;
+        tile.build = build;
+        build.created();
+        return build;
+    }
+
+    /** Places every block and links them, as if they had all been built before the first tick. */
+    public GraphFixture build(){
+        place();
+        GraphRebuildQueue.flush();
+        return this;
+    }
+
+    /** Removes the block at {@code index} in placement order, the way {@code Building.onRemoved()} does. */
+    public void remove(int index){
+        GraphBuild build = builds.get(index);
+        build.gms().updateGraphRemovals();
+        build.tile.build = null;
+    }
+
+    /** A node whose removal splits the graph where the shape has one (chain and tree); the grid centre otherwise. */
+    public int articulation(){
+        if(shape == Shape.chain) return builds.size / 2;
+        //spine node under a branch
+        if(shape == Shape.tree) return indexOf(width / 2 / 2 * 2, 0);
+        return indexOf(width / 2, height / 2);
+    }
+
+    /** The last node placed, which is a leaf in every shape. */
+    public int leaf(){
+        return builds.size - 1;
+    }
+
+    int indexOf(int x, int y){
+        return positions.indexOf(x + y * width);
+    }
+
+    public TorqueGraph torque(){
+        return torque(0);
+    }
+
+    public TorqueGraph torque(int index){
+        return (TorqueGraph)builds.get(index).torque().getNetwork();
+    }
+
+    public HeatGraph heat(){
+        return heat(0);
+    }
+
+    public HeatGraph heat(int index){
+        return builds.get(index).heat().getNetwork();
+    }
+
+    /** Gives every torque module a force and heats the first row, so the solvers have real work to do. */
+    public GraphFixture load(){
+        for(int i = 0; i < builds.size; i++){
+            GraphBuild build = builds.get(i);
+            build.torque().setForce(i % 3 == 0 ? 1f : 0f);
+            if(build.tileY() == 0) build.heat().setHeat(5000f);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString(){
+        return Strings.format("@[@x@, @ nodes]", shape, width, height, builds.size);
+    }
+}
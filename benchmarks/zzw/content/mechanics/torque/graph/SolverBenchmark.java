@@ -0,0 +1,47 @@
+package zzw.content.mechanics.torque.graph;
+
+import org.openjdk.jmh.annotations.*;
+import zzw.content.mechanics.torque.graph.GraphFixture.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Per-tick solver throughput on a built layout: {@link TorqueGraph#updateDirect()} and {@link HeatGraph#updateGraph()}.
+ * Both graphs are packed once in setup, so this measures the steady state a running server sees.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark{
+    @Param({"chain", "grid", "tree"})
+    public Shape shape;
+    @Param({"256", "4096"})
+    public int size;
+
+    TorqueGraph torque;
+    HeatGraph heat;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        GraphFixture fixture = new GraphFixture(shape, size).build().load();
+        torque = fixture.torque();
+        heat = fixture.heat();
+        torque.updateDirect();
+        heat.updateGraph();
+    }
+
+    @Benchmark
+    public float torqueUpdateDirect(){
+        torque.updateDirect();
+        return torque.lastGrossForceApplied;
+    }
+
+    @Benchmark
+    public float heatUpdateGraph(){
+        heat.updateGraph();
+        return heat.lastHeatFlow;
+    }
+}
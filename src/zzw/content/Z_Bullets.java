@@ -50,12 +50,12 @@ import static mindustry.Vars.tilesize;
 public class Z_Bullets {
 
     // ===== kami 弹幕子弹 (PU132 移植) =====
-    public static BulletType kamiBullet2 = new KamiBulletType();
-    public static BulletType kamiBullet3 = new KamiBulletType();
+    public static KamiBulletType kamiBullet2 = new KamiBulletType();
+    public static KamiBulletType kamiBullet3 = new KamiBulletType();
 
     static {
         // kamiBullet2 有拖尾 (PU132 trailLength=12), kamiBullet3 无拖尾
-        ((KamiBulletType) kamiBullet2).hasTrail = true;
+        kamiBullet2.hasTrail = true;
     }
 
     /** ===== SmokeBulletType (PU_V8 celsius/kelvin) ===== */
@@ -24,6 +24,7 @@ import zzw.content.exp.EField;
 import zzw.content.exp.ExpHub;
 import zzw.content.exp.ExpHolder;
 import zzw.content.exp.ExpOrbs;
+import zzw.content.exp.LevelCache;
 import zzw.content.exp.LevelHolder;
 import zzw.content.exp.UnityFx;
 import zzw.content.exp.UnityPal;
@@ -54,6 +55,8 @@ public class ExpLimitWall extends LimitWall {
     public Color[] effectColors;
 
     public EField<Float> damageReduction;
+    /** 当前写入方块字段的等级 (方块字段为所有建筑共享) */
+    protected int appliedLevel = -1;
 
     public ExpLimitWall(String name) {
         super(name);
@@ -65,12 +68,14 @@ public class ExpLimitWall extends LimitWall {
         if (expFields == null) expFields = new EField<?>[]{};
         maxExp = requiredExp(maxLevel);
         if (expLevel(maxExp) < maxLevel) maxExp++;
+        for (EField<?> f : expFields) f.compile(maxLevel);
         setEFields(0);
 
         if (damageReduction == null) {
             damageReduction = new EField.EExpoZero(f -> {}, 0.1f, Mathf.pow(4f + size, 1f / maxLevel), true, null,
                 v -> Strings.autoFixed(Mathf.roundPositive(v * 10000) / 100f, 2) + "%");
         }
+        damageReduction.compile(maxLevel);
     }
 
     /**
@@ -141,7 +146,7 @@ public class ExpLimitWall extends LimitWall {
     }
 
     public int expLevel(int e) {
-        return Math.min(maxLevel, (int)(Mathf.sqrt(e / (5f * expScale))));
+        return LevelCache.level(e, expScale, maxLevel);
     }
 
     public float expCap(int l) {
@@ -151,18 +156,22 @@ public class ExpLimitWall extends LimitWall {
     }
 
     public int requiredExp(int l) {
-        return l * l * 5 * expScale;
+        return LevelCache.required(l, expScale);
     }
 
+    /** 把等级 l 的属性写入方块字段; 已是该等级时跳过 */
     public void setEFields(int l) {
-        if (expFields == null) return;
+        if (expFields == null || l == appliedLevel) return;
+        appliedLevel = l;
         for (EField<?> f : expFields) {
-            f.setLevel(l);
+            f.apply(l);
         }
     }
 
     public class ExpLimitWallBuild extends LimitWallBuild implements ExpHolder, LevelHolder {
         public int exp;
+        /** 等级缓存, 见 {@link LevelCache} */
+        protected final LevelCache levelCache = new LevelCache();
         public @Nullable
         ExpHub.ExpHubBuild hub = null;
 
@@ -173,12 +182,11 @@ public class ExpLimitWall extends LimitWall {
 
             int before = level();
             exp += e;
-            int after = level();
-
             if (exp > maxExp) exp = maxExp;
             if (exp < 0) exp = 0;
 
-            if (after > before) levelup();
+            //区间内只是两次比较, 越过上界时才重算等级
+            if (exp >= levelCache.upper && level() > before) levelup();
             return e;
         }
 
@@ -221,7 +229,7 @@ public class ExpLimitWall extends LimitWall {
 
         @Override
         public int level() {
-            return expLevel(exp);
+            return levelCache.get(exp, expScale, maxLevel);
         }
 
         @Override
@@ -230,11 +238,8 @@ public class ExpLimitWall extends LimitWall {
         }
 
         public float expf() {
-            int lv = level();
-            if (lv >= maxLevel) return 1f;
-            float lb = expCap(lv - 1);
-            float lc = expCap(lv);
-            return ((float) exp - lb) / (lc - lb);
+            level();
+            return levelCache.progress(exp);
         }
 
         @Override
@@ -275,7 +280,7 @@ public class ExpLimitWall extends LimitWall {
 
         @Override
         public float handleDamage(float amount) {
-            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.fromLevel(level()));
+            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.floatAt(level()));
         }
 
         @Override
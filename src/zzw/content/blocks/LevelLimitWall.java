@@ -10,6 +10,7 @@ import mindustry.content.Fx;
 import mindustry.entities.Effect;
 import mindustry.graphics.Layer;
 import zzw.content.exp.EField;
+import zzw.content.exp.ExpMetrics;
 import zzw.content.exp.UnityPal;
 
 import static arc.Core.atlas;
@@ -123,8 +124,8 @@ public class LevelLimitWall extends ExpLimitWall {
         @Override
         public float handleDamage(float amount) {
             float a = amount * damageExp;
-            if (a >= 1f) handleExp((int) a);
-            else if (a > 0f && Mathf.chance(a)) handleExp(1);
+            if (a >= 1f) ExpMetrics.add(ExpMetrics.generated, team, handleExp((int) a));
+            else if (a > 0f && Mathf.chance(a)) ExpMetrics.add(ExpMetrics.generated, team, handleExp(1));
             setEFields(level());
             return super.handleDamage(amount);
         }
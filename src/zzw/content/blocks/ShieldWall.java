@@ -15,6 +15,7 @@ import mindustry.graphics.Layer;
 import mindustry.graphics.Pal;
 import mindustry.ui.Bar;
 import mindustry.world.meta.Stat;
+import zzw.content.exp.ExpMetrics;
 
 import static arc.Core.atlas;
 import static arc.Core.settings;
@@ -162,7 +163,7 @@ public class ShieldWall extends LevelLimitWall {
                 if (shieldBroke) {
                     damage(b.damage);
                 } else {
-                    handleExp((int) (b.damage * damageExp));
+                    ExpMetrics.add(ExpMetrics.generated, team, handleExp((int) (b.damage * damageExp)));
                     setEFields(level());
                     gotDamage += b.damage;
                 }
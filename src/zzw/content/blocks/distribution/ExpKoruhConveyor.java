@@ -64,6 +64,8 @@ public class ExpKoruhConveyor extends KoruhConveyor {
 
     public EField<Float> damageReduction;
     public @Nullable DrawLevel draw = null;
+    /** 当前写入方块字段的等级 (方块字段为所有建筑共享) */
+    protected int appliedLevel = -1;
 
     public ExpKoruhConveyor(String name) {
         super(name);
@@ -75,6 +77,7 @@ public class ExpKoruhConveyor extends KoruhConveyor {
         if (expFields == null) expFields = new EField<?>[]{};
         maxExp = requiredExp(maxLevel);
         if (expLevel(maxExp) < maxLevel) maxExp++;
+        for (EField<?> f : expFields) f.compile(maxLevel);
 
         for (EField<?> f : expFields) {
             if (f.stat == Stat.shootRange || f.stat == Stat.range) {
@@ -96,6 +99,7 @@ public class ExpKoruhConveyor extends KoruhConveyor {
             damageReduction = new EField.EExpoZero(f -> {}, 0.1f,
                 Mathf.pow(4f + size, 1f / maxLevel), true, null,
                 v -> Strings.autoFixed(Mathf.roundPositive(v * 10000) / 100f, 2) + "%");
+        damageReduction.compile(maxLevel);
     }
 
     @Override
@@ -208,7 +212,7 @@ public class ExpKoruhConveyor extends KoruhConveyor {
     }
 
     public int expLevel(int e) {
-        return Math.min(maxLevel, (int) (Mathf.sqrt(e / (5f * expScale))));
+        return LevelCache.level(e, expScale, maxLevel);
     }
 
     public float expCap(int l) {
@@ -218,17 +222,22 @@ public class ExpKoruhConveyor extends KoruhConveyor {
     }
 
     public int requiredExp(int l) {
-        return l * l * 5 * expScale;
+        return LevelCache.required(l, expScale);
     }
 
+    /** 把等级 l 的属性写入方块字段; 已是该等级时跳过 */
     public void setEFields(int l) {
+        if (l == appliedLevel) return;
+        appliedLevel = l;
         for (EField<?> f : expFields) {
-            f.setLevel(l);
+            f.apply(l);
         }
     }
 
     public class ExpKoruhConveyorBuild extends KoruhConveyorBuild implements ExpHolder, LevelHolder {
         public int exp;
+        /** 等级缓存, 见 {@link LevelCache} */
+        protected final LevelCache levelCache = new LevelCache();
         public @Nullable ExpHub.ExpHubBuild hub = null;
 
         public int incExp(int amount, boolean hubTake) {
@@ -237,10 +246,11 @@ public class ExpKoruhConveyor extends KoruhConveyor {
             if (e == 0) return 0;
             int before = level();
             exp += e;
-            int after = level();
             if (exp > maxExp) exp = maxExp;
             if (exp < 0) exp = 0;
-            if (after > before) levelup();
+
+            //区间内只是两次比较, 越过上界时才重算等级
+            if (exp >= levelCache.upper && level() > before) levelup();
             return e;
         }
 
@@ -283,7 +293,7 @@ public class ExpKoruhConveyor extends KoruhConveyor {
 
         @Override
         public int level() {
-            return expLevel(exp);
+            return levelCache.get(exp, expScale, maxLevel);
         }
 
         @Override
@@ -292,11 +302,8 @@ public class ExpKoruhConveyor extends KoruhConveyor {
         }
 
         public float expf() {
-            int lv = level();
-            if (lv >= maxLevel) return 1f;
-            float lb = expCap(lv - 1);
-            float lc = expCap(lv);
-            return ((float) exp - lb) / (lc - lb);
+            level();
+            return levelCache.progress(exp);
         }
 
         @Override
@@ -366,10 +373,10 @@ public class ExpKoruhConveyor extends KoruhConveyor {
             t.clearChildren();
             t.defaults().height(18f).pad(4);
             final int l = level();
-            if (damageReduction.fromLevel(level()) >= 0.01f) {
+            if (damageReduction.floatAt(level()) >= 0.01f) {
                 Image ii = new Image(Icon.defense, Pal.health);
                 ii.setSize(14f);
-                Label ll = new Label(() -> Mathf.roundPositive(damageReduction.fromLevel(level()) * 100) + "");
+                Label ll = new Label(() -> Mathf.roundPositive(damageReduction.floatAt(level()) * 100) + "");
                 ll.setStyle(new Label.LabelStyle(Styles.outlineLabel));
                 ll.setSize(26f, 18f);
                 ll.setAlignment(Align.center);
@@ -389,7 +396,7 @@ public class ExpKoruhConveyor extends KoruhConveyor {
 
         @Override
         public float handleDamage(float amount) {
-            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.fromLevel(level()));
+            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.floatAt(level()));
         }
 
         @Override
@@ -28,13 +28,13 @@ public class HeatGenerator extends GraphBlock{
          */
         protected void generateHeat(float mul){
             GraphHeatModule hgraph = heat();
-            hgraph.heat += Math.max(0f, maxTemp - hgraph.getTemp()) * mulCoeff * mul;
+            hgraph.addHeat(Math.max(0f, maxTemp - hgraph.getTemp()) * mulCoeff * mul);
         }
 
         /** 带注入上限版本: 每帧最多注入 limit 热量 (太阳能集热器用) */
         protected void generateHeat(float limit, float mul){
             GraphHeatModule hgraph = heat();
-            hgraph.heat += Math.min(limit, Math.max(0f, maxTemp - hgraph.getTemp()) * mulCoeff * mul);
+            hgraph.addHeat(Math.min(limit, Math.max(0f, maxTemp - hgraph.getTemp()) * mulCoeff * mul));
         }
     }
 }
@@ -63,21 +63,25 @@ public class DiagonalTower extends ExpTower{
         }
 
         @Override
-        public int shootExp(int amount){
-            if(!diagonal) return super.shootExp(amount);
+        public int rayKey(){
+            return rotint();
+        }
+
+        @Override
+        protected void castRay(){
+            if(!diagonal){
+                super.castRay();
+                return;
+            }
 
+            int dx = d8edge(rotation).x, dy = d8edge(rotation).y;
             for(int i = 1; i <= range; i++){
-                Tile t = world.tile(tile.x + d8edge(rotation).x * i, tile.y + d8edge(rotation).y * i);
-                if(t != null && t.build instanceof ExpHolder exp){
-                    int a = exp.handleTower(amount, laserRotation());
-                    if(a > 0){
-                        lastTarget = t;
-                        return a;
-                    }
+                Tile t = world.tile(tile.x + dx * i, tile.y + dy * i);
+                if(t != null && t.build instanceof ExpHolder && (rayTargets.isEmpty() || rayTargets.peek() != t.build)){
+                    rayTargets.add(t.build);
+                    rayTiles.add(t);
                 }
             }
-
-            return 0;
         }
 
         public int rotint(){
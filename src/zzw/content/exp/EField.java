@@ -28,6 +28,20 @@ public abstract class EField<T> {
     public abstract void setLevel(int l);
     public void buildTable(Table table, int end){}
 
+    /** 预先计算 0..maxLevel 各等级的取值, 由方块 init() 调用; 默认不做任何事 */
+    public void compile(int maxLevel){}
+
+    /** 把等级 l 的取值写入方块字段; 已编译的字段直接查表 */
+    public void apply(int l){
+        setLevel(l);
+    }
+
+    /** 等级 l 的数值 (非数值字段返回 0) */
+    public float floatAt(int l){
+        Object v = fromLevel(l);
+        return v instanceof Number n ? n.floatValue() : 0f;
+    }
+
     public EField<T> formatAll(boolean f){
         this.formatAll = f;
         return this;
@@ -38,17 +52,48 @@ public abstract class EField<T> {
         return "[#84ff00]NULL[]";
     }
 
-    //f(x) = scale * x + start
-    public static class ELinear extends EField<Float> {
+    /** 数值字段: 编译为 float 表, apply()/floatAt() 不再装箱 */
+    public abstract static class EFloat extends EField<Float> {
         public Floatc set;
+        /** 各等级取值, 未编译时为 null */
+        protected float[] table;
+
+        public EFloat(Floatc set, Stat stat){
+            super(stat);
+            this.set = set;
+        }
+
+        @Override
+        public void setLevel(int l){
+            set.get(fromLevel(l));
+        }
+
+        @Override
+        public void compile(int maxLevel){
+            table = new float[maxLevel + 1];
+            for(int l = 0; l <= maxLevel; l++) table[l] = fromLevel(l);
+        }
+
+        @Override
+        public void apply(int l){
+            set.get(floatAt(l));
+        }
+
+        @Override
+        public float floatAt(int l){
+            return table != null && l >= 0 && l < table.length ? table[l] : fromLevel(l);
+        }
+    }
+
+    //f(x) = scale * x + start
+    public static class ELinear extends EFloat {
         public float start, scale;
         public Func<Float, String> format;
 
         public ELinear(Floatc set, float start, float scale, Stat stat, Func<Float, String> format){
-            super(stat);
+            super(set, stat);
             this.start = start;
             this.scale = scale;
-            this.set = set;
             this.format = format;
         }
 
@@ -61,11 +106,6 @@ public abstract class EField<T> {
             return start + l * scale;
         }
 
-        @Override
-        public void setLevel(int l){
-            set.get(fromLevel(l));
-        }
-
         @Override
         public String toString(){
             return Core.bundle.format("field.linear", format.get(start), formatAll ? format.get(scale) : Strings.autoFixed(scale, 2));
@@ -98,11 +138,6 @@ public abstract class EField<T> {
             return start + Math.min(l, cap) * scale;
         }
 
-        @Override
-        public void setLevel(int l){
-            set.get(fromLevel(l));
-        }
-
         @Override
         public String toString(){
             return Core.bundle.format("field.linearcap", format.get(start), formatAll ? format.get(scale) : Strings.autoFixed(scale, 2), cap);
@@ -110,16 +145,14 @@ public abstract class EField<T> {
     }
 
     //f(x) = start * scale ^ x
-    public static class EExpo extends EField<Float> {
-        public Floatc set;
+    public static class EExpo extends EFloat {
         public float start, scale;
         public Func<Float, String> format;
 
         public EExpo(Floatc set, float start, float scale, Stat stat, Func<Float, String> format){
-            super(stat);
+            super(set, stat);
             this.start = start;
             this.scale = scale;
-            this.set = set;
             this.format = format;
         }
 
@@ -132,11 +165,6 @@ public abstract class EField<T> {
             return start * Mathf.pow(scale, l);
         }
 
-        @Override
-        public void setLevel(int l){
-            set.get(fromLevel(l));
-        }
-
         @Override
         public String toString(){
             return Core.bundle.format("field.exponent", format.get(start), scale);
@@ -175,19 +203,17 @@ public abstract class EField<T> {
     }
 
     //f(x) = a / (x - axis) + end
-    public static class ERational extends EField<Float> {
-        public Floatc set;
+    public static class ERational extends EFloat {
         public float start, end, axis, a;
         public Func<Float, String> format;
 
         public ERational(Floatc set, float start, float end, float axis, Stat stat, Func<Float, String> format){
-            super(stat);
+            super(set, stat);
             this.start = start;
             this.end = end;
             if(axis == 0) throw new ArithmeticException("Vertical asymptote cannot be x = 0");
             this.axis = axis;
             a = (end - start) * axis;
-            this.set = set;
             this.format = format;
         }
 
@@ -204,11 +230,6 @@ public abstract class EField<T> {
             return a / (l - axis) + end;
         }
 
-        @Override
-        public void setLevel(int l){
-            set.get(fromLevel(l));
-        }
-
         @Override
         public String toString(){
             return Core.bundle.format("field.rational", format.get(start), formatAll ? format.get(end) : Strings.autoFixed(end, 2));
@@ -247,6 +268,11 @@ public abstract class EField<T> {
             set.get(fromLevel(l));
         }
 
+        @Override
+        public void apply(int l){
+            set.get((l >= thresh) != start);
+        }
+
         @Override
         public String toString(){
             return Core.bundle.format("field.bool", bs(start), bs(!start), thresh);
@@ -60,10 +60,12 @@ public class ExpHub extends ExpTank{
             else{
                 return;
             }
+            entity.linkVersion = -1;
             entity.sanitize();
         });
         configClear((ExpHubBuild entity) -> {
             entity.links.clear();
+            entity.linkVersion = -1;
         });
         config(Point2[].class, (ExpHubBuild tile, Point2[] value) -> {
             IntSeq old = new IntSeq(tile.links);
@@ -129,19 +131,11 @@ public class ExpHub extends ExpTank{
         Lines.stroke(1f);
         Drawf.circles(x * tilesize + offset, y * tilesize + offset, range, UnityPal.exp);
         if(valid){
-            tmpe.clear();
-            int linkRange = (int)(range / tilesize) + 1;
-            for(int xx = x - linkRange; xx <= x + linkRange; xx++){
-                for(int yy = y - linkRange; yy <= y + linkRange; yy++){
-                    if(xx == x && yy == y) continue;
-                    Building link = world.build(xx, yy);
-
-                    if(link != null && link.team == player.team() && !tmpe.contains(link) && link.dst2(Tmp.v1.set(x * tilesize + offset, y * tilesize + offset)) <= range * range && link instanceof ExpHolder e && e.hubbable() && e.canHub(null)){
-                        tmpe.add(link);
-                        Drawf.square(link.x, link.y, link.block.size * tilesize / 2f + 2f, Pal.place);
-                    }
+            ExpIndex.of(player.team()).eachInRange(x * tilesize + offset, y * tilesize + offset, range, link -> {
+                if(link.tile != tile && link instanceof ExpHolder e && e.hubbable() && e.canHub(null)){
+                    Drawf.square(link.x, link.y, link.block.size * tilesize / 2f + 2f, Pal.place);
                 }
-            }
+            });
         }
 
         Draw.reset();
@@ -150,40 +144,60 @@ public class ExpHub extends ExpTank{
     protected void getPotentialLinks(Tile tile, Team team, Cons<Building> others, boolean checkHub){
         if(tile == null || tile.build == null) return;
         tmpe.clear();
-        int linkRange = (int)(range / tilesize) + 1;
-        for(int x = tile.x - linkRange; x <= tile.x + linkRange; x++){
-            for(int y = tile.y - linkRange; y <= tile.y + linkRange; y++){
-                Building link = world.build(x, y);
-
-                if(link != null && link.team == team && link != tile.build && !tmpe.contains(link) && linkValid(tile.build, link, checkHub)){
-                    tmpe.add(link);
-                    others.get(link);
-                }
-            }
-        }
+        ExpIndex.of(team).eachInRange(tile.build.x, tile.build.y, range, link -> {
+            if(link != tile.build && linkValid(tile.build, link, checkHub)) tmpe.add(link);
+        });
+        //closest first, so maxLinks keeps the nearest blocks
+        Building center = tile.build;
+        tmpe.sort(b -> b.dst2(center));
+        for(int i = 0; i < tmpe.size; i++) others.get(tmpe.get(i));
     }
 
     public class ExpHubBuild extends ExpTankBuild {
         public float reload = reloadTime;
         public IntSeq links = new IntSeq();
+        /** 已解析且有效的链接建筑 (不检查归属), 由 refreshLinks() 在范围内经验方块或链接配置变化后重建 */
+        public final Seq<Building> linkBuilds = new Seq<>(4);
+        /** linkBuilds 对应的范围内 {@link ExpIndex#stamp}; -1 表示链接配置已改变 */
+        int linkVersion = -1;
 
         public int takeAmount(int e, Building source){
             if(e <= 0) return 0;
             int prefa = Mathf.ceilPositive(ratio * e);
             int r = handleExp(prefa);
+            ExpMetrics.add(ExpMetrics.hubbed, team, r);
             if(r > 0) transferEffect.at(x, y, 0f, Color.white, source);
             return r;
         }
 
+        /** 移除无效或已归属其他中枢的链接, 并把其余链接的归属设为本中枢 */
         public void sanitize(){
+            refreshLinks();
+            for(int i = linkBuilds.size - 1; i >= 0; i--){
+                ExpHolder e = (ExpHolder)linkBuilds.get(i);
+                if(e.canHub(this)) e.setHub(this);
+                else linkBuilds.remove(i);
+            }
+            if(linkBuilds.size != links.size){
+                links.clear();
+                for(int i = 0; i < linkBuilds.size; i++) links.add(linkBuilds.get(i).pos());
+            }
+        }
+
+        /**
+         * 重新解析 links; 只在范围内有经验方块加入/移出或链接配置变化后才真正执行
+         * 只检查距离/队伍/有效性, 不检查建筑当前归属哪个中枢 (canHub):
+         * 归属由 setHub 改变, 不会更新 ExpIndex 的版本号, 且 canHub → hubValid 不能回到这里。
+         * 归属在 sanitize() 与绘制时检查。
+         */
+        public void refreshLinks(){
+            int stamp = ExpIndex.stampInRange(x, y, range);
+            if(linkVersion == stamp) return;
+            linkVersion = stamp;
+            linkBuilds.clear();
             for(int i = 0; i < links.size; i++){
                 Building b = world.build(links.get(i));
-
-                if(!linkValid(this, b, true) || links.get(i) != b.pos()){
-                    links.removeIndex(i);
-                    i--;
-                }
-                else if(b instanceof ExpHolder e && e.hubbable() && e.canHub(this)) e.setHub(this);
+                if(linkValid(this, b, false) && links.get(i) == b.pos()) linkBuilds.add(b);
             }
         }
 
@@ -203,6 +217,7 @@ public class ExpHub extends ExpTank{
         @Override
         public void dropped(){
             links.clear();
+            linkVersion = -1;
         }
 
         @Override
@@ -213,6 +228,7 @@ public class ExpHub extends ExpTank{
 
         @Override
         public void updateTile(){
+            refreshLinks();
             reload += edelta();
 
             // PU_V8 原版: exp-output 不主动抽取, 只负责定时发射经验球
@@ -238,11 +254,12 @@ public class ExpHub extends ExpTank{
 
         protected void drawLinks(){
             if(Mathf.zero(Renderer.laserOpacity) || links.size == 0) return;
+            refreshLinks();
             Draw.z(Layer.power + 1f);
             Draw.alpha(Renderer.laserOpacity * (Mathf.absin(5f, 0.3f) + 0.1f));
-            for(int i = 0; i < links.size; i++){
-                Building b = world.build(links.get(i));
-                if(!linkValid(this, b, true) || links.get(i) != b.pos()) continue;
+            for(int i = 0; i < linkBuilds.size; i++){
+                Building b = linkBuilds.get(i);
+                if(!((ExpHolder)b).canHub(this)) continue;
 
                 Tmp.v2.set(b);
                 Tmp.v1.set(Tmp.v2).sub(this).nor().scl(size * tilesize / 2f);
@@ -265,19 +282,11 @@ public class ExpHub extends ExpTank{
             Drawf.circles(x, y, tile.block().size * tilesize / 2f + 1f + Mathf.absin(Time.time, 4f, 1f), UnityPal.exp);
             Drawf.circles(x, y, range, UnityPal.exp);
 
-            int linkRange = (int)(range / tilesize) + 1;
-            for(int x = tile.x - linkRange; x <= tile.x + linkRange; x++){
-                for(int y = tile.y - linkRange; y <= tile.y + linkRange; y++){
-                    Building link = world.build(x, y);
-
-                    if(link != null && link != this && linkValid(this, link, true)){
-                        boolean linked = links.indexOf(link.pos()) >= 0;
-
-                        if(linked){
-                            Drawf.square(link.x, link.y, link.block.size * tilesize / 2f + 1f, Pal.accent);
-                        }
-                    }
-                }
+            refreshLinks();
+            for(int i = 0; i < linkBuilds.size; i++){
+                Building link = linkBuilds.get(i);
+                if(!((ExpHolder)link).canHub(this)) continue;
+                Drawf.square(link.x, link.y, link.block.size * tilesize / 2f + 1f, Pal.accent);
             }
 
             Draw.reset();
@@ -323,6 +332,7 @@ public class ExpHub extends ExpTank{
             for(int i = 0; i < amount; i++){
                 links.add(read.i());
             }
+            linkVersion = -1;
             reload = read.f();
         }
 
@@ -0,0 +1,288 @@
+package zzw.content.exp;
+
+import arc.*;
+import arc.func.*;
+import arc.struct.*;
+import mindustry.game.*;
+import mindustry.game.EventType.*;
+import mindustry.gen.*;
+
+import java.util.*;
+
+import static mindustry.Vars.*;
+
+/**
+ * 经验方块空间索引 - 按队伍划分的网格桶, 记录所有 {@link ExpHolder} / {@link LevelHolder} 建筑
+ * <p>
+ * 每个桶覆盖 {@link #cellSize}×{@link #cellSize} 格, 建筑按中心格放入桶中。
+ * 范围/射线/最近查询只遍历覆盖查询区域的桶, 代价与范围内经验方块数量成正比, 而不是与格子面积成正比。
+ * <p>
+ * 维护方式:
+ * <ul>
+ *   <li>WorldLoadEvent - 遍历 Groups.build 全量重建</li>
+ *   <li>TileChangeEvent - 加入新放置的建筑, 移除该格上已拆除/摧毁的建筑</li>
+ *   <li>BuildTeamChangeEvent - 在队伍之间移动</li>
+ *   <li>其他途径失效的建筑在查询遇到时惰性移除</li>
+ * </ul>
+ * 每个桶记录最后一次有经验方块加入/移出的版本号 ({@link #stamp}),
+ * 依赖附近经验方块的缓存 (ExpHub 的链接表、ExpTower 的射线目标) 只比较自己覆盖的桶,
+ * 其他方块 (传送带、墙等) 的变化和范围外的变化不会使它们失效。
+ */
+public class ExpIndex{
+    public static final int cellShift = 3, cellSize = 1 << cellShift;
+
+    static final ExpIndex[] teams = new ExpIndex[Team.all.length];
+    static final Seq<ExpIndex> active = new Seq<>();
+    static final Seq<Building> rayHits = new Seq<>();
+    static final IntSeq raySteps = new IntSeq();
+    /** 桶网格尺寸 (以桶为单位) */
+    static int width, height;
+    static boolean registered;
+    /** 经验方块加入/移出索引的全局计数, 用于给桶打版本号 */
+    static int version;
+    /** 每个桶 (不分队伍) 最后一次有经验方块加入/移出时的 version */
+    static int[] cellVersions = new int[0];
+
+    public final Team team;
+    Seq<Building>[] cells;
+    /** 已收录建筑的最大尺寸, 用于扩展查询区域以覆盖多格方块 */
+    int maxSize = 1;
+
+    ExpIndex(Team team){
+        this.team = team;
+        cells = new Seq[width * height];
+    }
+
+    /** 注册维护索引所需的事件, 由 Z_Exp.load() 调用 */
+    public static void init(){
+        if(registered) return;
+        registered = true;
+        Events.on(WorldLoadEvent.class, e -> rebuild());
+        Events.on(TileChangeEvent.class, e -> {
+            prune(e.tile.x, e.tile.y);
+            if(e.tile.build != null) add(e.tile.build);
+        });
+        Events.on(BuildTeamChangeEvent.class, e -> {
+            ExpIndex prev = teams[e.previous.id];
+            if(prev != null) prev.remove(e.build);
+            add(e.build);
+        });
+    }
+
+    /** 清空并按当前世界重建所有队伍的索引 */
+    public static void rebuild(){
+        width = (world.width() + cellSize - 1) >> cellShift;
+        height = (world.height() + cellSize - 1) >> cellShift;
+        //新世界的所有桶都比旧缓存记录的版本号新
+        cellVersions = new int[width * height];
+        Arrays.fill(cellVersions, ++version);
+        for(int i = 0; i < teams.length; i++) teams[i] = null;
+        active.clear();
+        Groups.build.each(ExpIndex::add);
+    }
+
+    /** 该队伍的索引, 没有经验方块时返回一个空索引 */
+    public static ExpIndex of(Team team){
+        ExpIndex index = teams[team.id];
+        if(index == null){
+            index = teams[team.id] = new ExpIndex(team);
+            active.add(index);
+        }
+        return index;
+    }
+
+    public static boolean indexed(Building build){
+        return build instanceof ExpHolder || build instanceof LevelHolder;
+    }
+
+    public static void add(Building build){
+        if(!indexed(build) || build.tile == null) return;
+        of(build.team).insert(build);
+    }
+
+    void insert(Building build){
+        if(cells.length != width * height) cells = new Seq[width * height];
+        int cell = cellOf(build.tile.x, build.tile.y);
+        if(cell < 0) return;
+        Seq<Building> seq = cells[cell];
+        if(seq == null) cells[cell] = seq = new Seq<>(false, 4, Building.class);
+        else if(seq.contains(build, true)) return;
+        seq.add(build);
+        touch(cell);
+        maxSize = Math.max(maxSize, build.block.size);
+    }
+
+    void remove(Building build){
+        if(build.tile == null) return;
+        int cell = cellOf(build.tile.x, build.tile.y);
+        if(cell >= 0 && cell < cells.length && cells[cell] != null && cells[cell].remove(build, true)) touch(cell);
+    }
+
+    /** 移除格子 (tx, ty) 所在桶中已失效的建筑 (拆除/摧毁后该格会触发 TileChangeEvent) */
+    static void prune(int tx, int ty){
+        int cell = cellOf(tx, ty);
+        if(cell < 0) return;
+        for(int i = 0; i < active.size; i++){
+            ExpIndex index = active.get(i);
+            if(index.cells.length != width * height) continue;
+            Seq<Building> seq = index.cells[cell];
+            if(seq == null) continue;
+            for(int j = seq.size - 1; j >= 0; j--){
+                if(!index.live(seq.items[j])){
+                    seq.remove(j);
+                    touch(cell);
+                }
+            }
+        }
+    }
+
+    static void touch(int cell){
+        if(cell < cellVersions.length) cellVersions[cell] = ++version;
+    }
+
+    /**
+     * 格子矩形 [minX, maxX]×[minY, maxY] (按 maxSize 扩展后, 与 eachInTiles 覆盖的桶相同) 内最后一次经验方块变化的版本号。
+     * 返回值不变说明该区域内没有经验方块加入或移出。
+     */
+    public static int stamp(int minX, int minY, int maxX, int maxY){
+        int pad = maxSize() / 2 + 1, result = 0;
+        int cx0 = Math.max(0, (minX - pad) >> cellShift), cy0 = Math.max(0, (minY - pad) >> cellShift);
+        int cx1 = Math.min(width - 1, (maxX + pad) >> cellShift), cy1 = Math.min(height - 1, (maxY + pad) >> cellShift);
+        for(int cy = cy0; cy <= cy1; cy++){
+            for(int cx = cx0; cx <= cx1; cx++){
+                int c = cx + cy * width;
+                if(c < cellVersions.length) result = Math.max(result, cellVersions[c]);
+            }
+        }
+        return result;
+    }
+
+    /** 中心在 (wx, wy) 半径 radius 范围内的 {@link #stamp} */
+    public static int stampInRange(float wx, float wy, float radius){
+        return stamp((int)((wx - radius) / tilesize), (int)((wy - radius) / tilesize), (int)((wx + radius) / tilesize) + 1, (int)((wy + radius) / tilesize) + 1);
+    }
+
+    static int maxSize(){
+        int size = 1;
+        for(int i = 0; i < active.size; i++) size = Math.max(size, active.get(i).maxSize);
+        return size;
+    }
+
+    static int cellOf(int tx, int ty){
+        int cx = tx >> cellShift, cy = ty >> cellShift;
+        if(tx < 0 || ty < 0 || cx >= width || cy >= height) return -1;
+        return cx + cy * width;
+    }
+
+    /** 建筑仍在世界中且属于本队伍; 否则已过期, 应从桶中移除 */
+    boolean live(Building build){
+        return build.isValid() && build.team == team;
+    }
+
+    /**
+     * 遍历中心格落在格子矩形 [minX, maxX]×[minY, maxY] (按 maxSize 扩展后) 的桶中的所有有效建筑。
+     * 过期的建筑在此处被移除。
+     */
+    void eachInTiles(int minX, int minY, int maxX, int maxY, Cons<Building> cons){
+        if(cells.length != width * height) return;
+        int pad = maxSize / 2 + 1;
+        int cx0 = Math.max(0, (minX - pad) >> cellShift), cy0 = Math.max(0, (minY - pad) >> cellShift);
+        int cx1 = Math.min(width - 1, (maxX + pad) >> cellShift), cy1 = Math.min(height - 1, (maxY + pad) >> cellShift);
+        for(int cy = cy0; cy <= cy1; cy++){
+            for(int cx = cx0; cx <= cx1; cx++){
+                Seq<Building> seq = cells[cx + cy * width];
+                if(seq == null) continue;
+                for(int i = seq.size - 1; i >= 0; i--){
+                    Building b = seq.items[i];
+                    if(!live(b)){
+                        seq.remove(i);
+                        touch(cx + cy * width);
+                        continue;
+                    }
+                    cons.get(b);
+                }
+            }
+        }
+    }
+
+    /** 中心到世界坐标 (wx, wy) 距离不超过 radius 的建筑 */
+    public void eachInRange(float wx, float wy, float radius, Cons<Building> cons){
+        float r2 = radius * radius;
+        eachInTiles((int)((wx - radius) / tilesize), (int)((wy - radius) / tilesize), (int)((wx + radius) / tilesize) + 1, (int)((wy + radius) / tilesize) + 1, b -> {
+            if(b.dst2(wx, wy) <= r2) cons.get(b);
+        });
+    }
+
+    /** 占据的格子中至少有一格落在以格子 (tx, ty) 为圆心、半径 range 格的圆内 (与 Geometry.circle 一致) 的建筑 */
+    public void eachInTileCircle(int tx, int ty, int range, Cons<Building> cons){
+        eachInTiles(tx - range, ty - range, tx + range, ty + range, b -> {
+            if(footprintWithin(b, tx, ty, range)) cons.get(b);
+        });
+    }
+
+    /** 中心最接近 (wx, wy) 且在 radius 以内、满足条件的建筑 */
+    public Building nearest(float wx, float wy, float radius, Boolf<Building> pred){
+        Building[] result = {null};
+        float[] best = {radius * radius};
+        eachInRange(wx, wy, radius, b -> {
+            float d = b.dst2(wx, wy);
+            if(d <= best[0] && pred.get(b)){
+                best[0] = d;
+                result[0] = b;
+            }
+        });
+        return result[0];
+    }
+
+    static boolean footprintWithin(Building b, int tx, int ty, int range){
+        int s = b.block.size, minX = b.tile.x - (s - 1) / 2, minY = b.tile.y - (s - 1) / 2;
+        int dx = Math.max(0, Math.max(minX - tx, tx - (minX + s - 1)));
+        int dy = Math.max(0, Math.max(minY - ty, ty - (minY + s - 1)));
+        return dx * dx + dy * dy <= range * range;
+    }
+
+    /**
+     * 沿 (dx, dy) 方向从格子 (tx, ty) 射出 range 格的射线 (不分队伍), 按命中先后依次交给 cons,
+     * 直到 cons 返回 true。step 为命中的第一格到起点的格数。
+     * @return 停止时的建筑, 没有则为 null
+     */
+    public static Building raycast(int tx, int ty, int dx, int dy, int range, RayHit cons){
+        rayHits.clear();
+        raySteps.clear();
+        int minX = Math.min(tx, tx + dx * range), maxX = Math.max(tx, tx + dx * range);
+        int minY = Math.min(ty, ty + dy * range), maxY = Math.max(ty, ty + dy * range);
+        for(int i = 0; i < active.size; i++){
+            active.get(i).eachInTiles(minX, minY, maxX, maxY, b -> {
+                int s = b.block.size, bx = b.tile.x - (s - 1) / 2, by = b.tile.y - (s - 1) / 2;
+                int lo = 1, hi = range;
+                //射线与方块占据区域在每条轴上的相交区间
+                if(dx == 0){
+                    if(tx < bx || tx > bx + s - 1) return;
+                }else{
+                    lo = Math.max(lo, dx > 0 ? bx - tx : tx - (bx + s - 1));
+                    hi = Math.min(hi, dx > 0 ? bx + s - 1 - tx : tx - bx);
+                }
+                if(dy == 0){
+                    if(ty < by || ty > by + s - 1) return;
+                }else{
+                    lo = Math.max(lo, dy > 0 ? by - ty : ty - (by + s - 1));
+                    hi = Math.min(hi, dy > 0 ? by + s - 1 - ty : ty - by);
+                }
+                if(lo > hi) return;
+                int at = 0;
+                while(at < raySteps.size && raySteps.get(at) <= lo) at++;
+                raySteps.insert(at, lo);
+                rayHits.insert(at, b);
+            });
+        }
+        for(int i = 0; i < rayHits.size; i++){
+            Building b = rayHits.get(i);
+            if(cons.hit(b, raySteps.get(i))) return b;
+        }
+        return null;
+    }
+
+    public interface RayHit{
+        boolean hit(Building build, int step);
+    }
+}
@@ -0,0 +1,186 @@
+package zzw.content.exp;
+
+import arc.*;
+import arc.struct.*;
+import arc.util.*;
+import mindustry.game.*;
+import mindustry.game.EventType.*;
+import mindustry.gen.*;
+import mindustry.ui.*;
+import mindustry.world.*;
+
+import java.util.Arrays;
+
+import static mindustry.Vars.*;
+
+/**
+ * 经验系统统计 - 各队伍经验流量计数与经验方块的更新耗时
+ * <p>
+ * 计数 (自世界加载起累计, 按队伍):
+ * <ul>
+ *   <li>{@link #generated} - ExpSource 注入、限伤墙受击转化的经验</li>
+ *   <li>{@link #consumed} - 被 ExpVoid 吞掉的经验</li>
+ *   <li>{@link #transferred} - ExpTower / ExpNode 发送出去的经验</li>
+ *   <li>{@link #hubbed} - ExpHub 从链接方块抽成的经验</li>
+ *   <li>{@link #toOrbs} - 变成经验球的经验 (按散播位置的建筑归属队伍, 无建筑时记入 derelict)</li>
+ *   <li>{@link #fromOrbs} - 从经验球回收的经验</li>
+ * </ul>
+ * 耗时: 经验方块的 Building.update() (包含 updateTile) 按方块类型累计, 只有需要显示或记录时才计时。
+ * <p>
+ * 客户端: 设置中的 "exp-debug-overlay" 打开 HUD 叠加层, 每秒刷新一次。
+ * 无头服务器: 每 {@link #logInterval} tick 输出一次日志, 设为 0 关闭。
+ */
+public class ExpMetrics{
+    public static final int generated = 0, consumed = 1, transferred = 2, hubbed = 3, toOrbs = 4, fromOrbs = 5;
+    static final String[] kindNames = {"gen", "void", "tower/node", "hub", "to-orbs", "from-orbs"};
+
+    /** 是否显示客户端叠加层 */
+    public static boolean overlay;
+    /** 无头服务器输出统计的间隔 (tick), 0 表示不输出 */
+    public static float logInterval = 60f * 60f;
+    /** 叠加层刷新间隔 (tick) */
+    public static float window = 60f;
+
+    static final long[][] counters = new long[kindNames.length][Team.all.length];
+    /** 超时消失或被焚化的经验球 (经验值) */
+    static long orbsLost;
+    /** 当前窗口 / 当前日志区间内按方块 id 累计的耗时 (ns) 与调用次数 */
+    static long[] nanos = new long[0], logNanos = new long[0];
+    static int[] calls = new int[0], logCalls = new int[0];
+    static float windowTimer, logTimer;
+    static String text = "";
+    static final IntSeq order = new IntSeq();
+    static boolean registered;
+
+    /** 注册统计的更新、叠加层与设置项, 由 Z_Exp.load() 调用 */
+    public static void init(){
+        if(registered) return;
+        registered = true;
+        Events.run(Trigger.update, ExpMetrics::update);
+        Events.on(WorldLoadEvent.class, e -> clear());
+        Events.on(ResetEvent.class, e -> clear());
+        Events.on(ClientLoadEvent.class, e -> {
+            overlay = Core.settings.getBool("exp-debug-overlay", false);
+            ui.settings.game.checkPref("exp-debug-overlay", false, v -> overlay = v);
+            ui.hudGroup.fill(t -> {
+                t.top().left().marginTop(210f);
+                t.visible(() -> overlay && state.isGame());
+                t.table(Styles.black6, p -> p.label(() -> text).style(Styles.outlineLabel).left()).margin(6f);
+            });
+        });
+    }
+
+    public static void add(int kind, Team team, int amount){
+        if(amount > 0) counters[kind][team.id] += amount;
+    }
+
+    public static void add(int kind, Building build, int amount){
+        add(kind, build == null ? Team.derelict : build.team, amount);
+    }
+
+    public static void orbsLost(int amount){
+        orbsLost += amount;
+    }
+
+    public static long get(int kind, Team team){
+        return counters[kind][team.id];
+    }
+
+    public static boolean timing(){
+        return overlay || (headless && logInterval > 0);
+    }
+
+    /** 计时开始; 不需要计时时返回 0 */
+    public static long begin(){
+        return timing() ? Time.nanos() : 0L;
+    }
+
+    public static void end(Block block, long start){
+        if(start == 0L) return;
+        int id = block.id;
+        if(id >= nanos.length) grow(id + 1);
+        nanos[id] += Time.nanos() - start;
+        calls[id]++;
+    }
+
+    static void grow(int size){
+        size = Math.max(size, content.blocks().size);
+        nanos = Arrays.copyOf(nanos, size);
+        calls = Arrays.copyOf(calls, size);
+        logNanos = Arrays.copyOf(logNanos, size);
+        logCalls = Arrays.copyOf(logCalls, size);
+    }
+
+    public static void clear(){
+        for(long[] c : counters) Arrays.fill(c, 0L);
+        orbsLost = 0;
+        Arrays.fill(nanos, 0L);
+        Arrays.fill(calls, 0);
+        Arrays.fill(logNanos, 0L);
+        Arrays.fill(logCalls, 0);
+        windowTimer = logTimer = 0f;
+        text = "";
+    }
+
+    static void update(){
+        if(!state.isPlaying()) return;
+
+        windowTimer += Time.delta;
+        if(windowTimer >= window){
+            if(overlay) text = format(nanos, calls, windowTimer);
+            for(int i = 0; i < nanos.length; i++){
+                logNanos[i] += nanos[i];
+                logCalls[i] += calls[i];
+            }
+            Arrays.fill(nanos, 0L);
+            Arrays.fill(calls, 0);
+            windowTimer = 0f;
+        }
+
+        if(headless && logInterval > 0){
+            logTimer += Time.delta;
+            if(logTimer >= logInterval){
+                Log.info("[Create] exp metrics\n" + format(logNanos, logCalls, logTimer));
+                Arrays.fill(logNanos, 0L);
+                Arrays.fill(logCalls, 0);
+                logTimer = 0f;
+            }
+        }
+    }
+
+    /** 计数与耗时 (按耗时降序, 换算为每秒毫秒数) 的文本 */
+    static String format(long[] ns, int[] cs, float ticks){
+        StringBuilder b = new StringBuilder();
+        b.append("orbs: ").append(ExpOrbs.totalOrbs()).append(" (").append(ExpOrbs.stacks()).append(" stacks), lost: ").append(orbsLost);
+
+        for(Team team : Team.all){
+            boolean any = false;
+            for(long[] c : counters) if(c[team.id] != 0) any = true;
+            if(!any) continue;
+            b.append('\n').append(team.name).append(':');
+            for(int k = 0; k < counters.length; k++){
+                b.append(' ').append(kindNames[k]).append('=').append(counters[k][team.id]);
+            }
+        }
+
+        order.clear();
+        for(int i = 0; i < ns.length; i++) if(cs[i] > 0) order.add(i);
+        //按耗时降序插入排序, 经验方块种类很少
+        for(int i = 1; i < order.size; i++){
+            int v = order.get(i), j = i - 1;
+            while(j >= 0 && ns[order.get(j)] < ns[v]){
+                order.set(j + 1, order.get(j));
+                j--;
+            }
+            order.set(j + 1, v);
+        }
+        float perSecond = 60f / Math.max(ticks, 1f);
+        for(int i = 0; i < order.size; i++){
+            int id = order.get(i);
+            b.append('\n').append(content.block(id).name).append(": ")
+                .append(Strings.fixed(ns[id] / 1e6f * perSecond, 3)).append(" ms/s, ")
+                .append(Strings.fixed(cs[id] * perSecond, 0)).append(" updates/s");
+        }
+        return b.toString();
+    }
+}
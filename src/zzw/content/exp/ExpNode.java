@@ -29,7 +29,8 @@ public class ExpNode extends ExpTank {
     public Effect shootEffect = UnityFx.expPoof;
     public Color lightClearColor;
 
-    private static final Seq<ExpHolder> tmps = new Seq<>();
+    private static final Seq<ExpHolder> tmps = new Seq<>(ExpHolder.class);
+    private static final IntSeq tmpe = new IntSeq();
     private static int tmpm = 0;
     private final Color tmpc = new Color();
 
@@ -70,10 +71,11 @@ public class ExpNode extends ExpTank {
         return new TextureRegion[]{region};
     }
 
-    public class ExpNodeBuild extends ExpTankBuild{
+    public class ExpNodeBuild extends ExpTankBuild implements ExpTransfers.Sender{
         public float reload = 0;
         public float warmup = 0f;
         public boolean shooting = false;
+        private boolean queued;
 
         @Override
         public void updateTile(){
@@ -94,38 +96,53 @@ public class ExpNode extends ExpTank {
             }
         }
 
+        /** 排入经验传输队列, 分配在下一次 {@link ExpTransfers} 结算时进行 */
         public void shoot(){
+            ExpTransfers.queue(this);
+        }
+
+        @Override
+        public boolean queued(){
+            return queued;
+        }
+
+        @Override
+        public void queued(boolean queued){
+            this.queued = queued;
+        }
+
+        @Override
+        public void transfer(){
             tmps.clear();
+            tmpe.clear();
             tmpm = 0; //max exp
-            Geometry.circle(tile.x, tile.y, range, (x, y) -> {
-                Building other = world.build(x, y);
-                /*if(other != null && other != this && other.team == team && other instanceof ExpHolder exp && !exp.hubbable() && other instanceof LevelHolder && (tmpm == -1 ||exp.getExp() <= tmpm)){
-                    if(exp.getExp() < tmpm) tmps.clear(); //previous blocks are all invalid
-                    tmps.add(exp);
-                    tmpm = exp.getExp();
-                }*/
-                if(other != null && other != this && other.team == team && other instanceof ExpHolder exp && !exp.hubbable() && other instanceof LevelHolder){
+            //each building once, even if several of its tiles are in range; exp is read once per holder
+            ExpIndex.of(team).eachInTileCircle(tile.x, tile.y, range, other -> {
+                if(other != this && other instanceof ExpHolder exp && !exp.hubbable() && other instanceof LevelHolder){
+                    int e = exp.getExp() + 1;
                     tmps.add(exp);
-                    if(exp.getExp() + 1 > tmpm) tmpm = exp.getExp() + 1;
+                    tmpe.add(e);
+                    if(e > tmpm) tmpm = e;
                 }
             });
 
             if(tmps.isEmpty()) return;
             //int amount = Mathf.ceilPositive(exp / (float)tmps.size);
             float scoresum = 0;
-            for(ExpHolder e : tmps){
-                float score = (1f - (e.getExp() + 1) / (float)(tmpm));
+            for(int i = 0; i < tmps.size; i++){
+                float score = (1f - tmpe.items[i] / (float)(tmpm));
                 if(score == 0) score = 0.1f;
                 scoresum += score;
             }
             int expm = exp;
-            for(ExpHolder e : tmps){
-                float score = (1f - (e.getExp() + 1) / (float)(tmpm + 1));
+            for(int i = 0; i < tmps.size; i++){
+                float score = (1f - tmpe.items[i] / (float)(tmpm + 1));
                 if(score == 0) score = 0.1f;
                 int amount = Mathf.ceilPositive(score / scoresum * expm);
                 if(exp < amount) continue;
-                int a = e.handleExp(amount);
+                int a = tmps.items[i].handleExp(amount);
                 exp -= a;
+                ExpMetrics.add(ExpMetrics.transferred, team, a);
             }
         }
 
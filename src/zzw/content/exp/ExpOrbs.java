@@ -1,48 +1,92 @@
 package zzw.content.exp;
 
+import arc.*;
 import arc.graphics.Color;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.Fill;
 import arc.graphics.g2d.Lines;
+import arc.math.Angles;
 import arc.math.Mathf;
+import arc.math.Rand;
+import arc.math.geom.Point2;
+import arc.struct.IntIntMap;
 import arc.util.Time;
-import mindustry.entities.bullet.BulletType;
-import mindustry.game.Team;
-import mindustry.gen.Bullet;
+import mindustry.core.World;
+import mindustry.game.EventType.*;
+import mindustry.gen.Building;
+import mindustry.gen.Call;
+import mindustry.graphics.Drawf;
 import mindustry.graphics.Layer;
-import mindustry.content.Fx;
 import mindustry.world.Tile;
 import mindustry.world.blocks.distribution.Conveyor;
 import mindustry.world.blocks.distribution.Conveyor.ConveyorBuild;
 import mindustry.world.blocks.production.Incinerator;
 import mindustry.world.blocks.production.Incinerator.IncineratorBuild;
 
+import java.util.Arrays;
+
 import static mindustry.Vars.*;
 
 /**
- * PU_V8 ExpOrbs 经验球 (BulletType实现, 飞行收集后填充经验)
+ * PU_V8 ExpOrbs 经验球 (飞行收集后填充经验)
  * 参考: PU_V8 main/src/unity/entities/ExpOrbs.java
+ * <p>
+ * 原版每 10 经验生成一个 Bullet, 大量经验掉落时会产生成千上万个子弹。这里改为独立的经验球池:
+ * <ul>
+ *   <li>状态保存在基本类型数组中 (不进入 Groups.bullet), 由 Trigger.update / Trigger.draw 驱动</li>
+ *   <li>一次散播最多生成 {@link #maxStacksPerBurst} 堆, 每堆带权重 (代表的经验球个数)</li>
+ *   <li>静止在同一格且距离小于 {@link #mergeRange} 的经验球合并为一堆</li>
+ *   <li>只有跨越格子边界 (或静止时每 {@link #restRecheck} tick) 才重新查询所在格子的建筑</li>
+ *   <li>联机时服务器每次散播只发送一个数据包 (含随机种子), 客户端按相同种子重现</li>
+ * </ul>
  */
 public class ExpOrbs {
     public static final int expAmount = 10;
+    /** 一次散播最多生成的经验球堆数, 多出的经验球并入各堆的权重 */
+    public static int maxStacksPerBurst = 16;
+    /** 静止的经验球与同格内静止的堆合并的最大距离 */
+    public static float mergeRange = 6f;
+    /** 静止的经验球重新查询所在格子的间隔 (tick) */
+    public static float restRecheck = 30f;
 
     private static final Color expColor = Color.valueOf("84ff00");
     private static final int[] d4x = new int[]{1, 0, -1, 0};
     private static final int[] d4y = new int[]{0, 1, 0, -1};
-    private static final ExpOrb expOrb = new ExpOrb();
+    private static final float speed = 0.0001f, drag = 0.05f, lifetime = 180f, lightRadius = 18f;
+    private static final String burstPacket = "create-exp-orbs";
+
+    //所在格子的交互类型, 与原 update() 中 if/else 链的顺序一致
+    private static final byte kindNone = 0, kindConveyor = 1, kindExpConveyor = 2, kindIncinerator = 3, kindSolid = 4;
+
+    //经验球池, 有效范围 [0, count)
+    static int count;
+    static float[] xs = new float[64], ys = new float[64], vxs = new float[64], vys = new float[64], times = new float[64], checks = new float[64];
+    static int[] weights = new int[64], tiles = new int[64], seeds = new int[64];
+    static boolean[] holders = new boolean[64];
+    static byte[] kinds = new byte[64];
+    static Building[] builds = new Building[64];
+    /** 本帧已处理的静止经验球: 格子 -> 下标 */
+    static final IntIntMap resting = new IntIntMap();
+    static final Rand rand = new Rand();
+    static boolean registered;
+
+    /** 注册经验球的更新/绘制与联机数据包, 由 Z_Exp.load() 调用 */
+    public static void init(){
+        if(registered) return;
+        registered = true;
+        Events.run(Trigger.update, ExpOrbs::update);
+        Events.run(Trigger.draw, ExpOrbs::draw);
+        Events.on(WorldLoadEvent.class, e -> clear());
+        Events.on(ResetEvent.class, e -> clear());
+        Events.on(ClientLoadEvent.class, e -> netClient.addPacketHandler(burstPacket, ExpOrbs::readBurst));
+    }
 
     public static void spreadExp(float x, float y, int amount){
         spreadExp(x, y, amount, 4f);
     }
 
     public static void spreadExp(float x, float y, int amount, float v){
-        if(net.server() || !net.active()){
-            v *= 1000f;
-            int n = amount / expAmount;
-            for(int i = 0; i < n; i++){
-                expOrb.createNet(Team.derelict, x, y, Mathf.random() * 360f, 0f, v, 1f);
-            }
-        }
+        spawn(x, y, 0f, true, v, amount / expAmount);
     }
 
     public static void spreadExp(float x, float y, float amount, float v){
@@ -54,13 +98,7 @@ public class ExpOrbs {
     }
 
     public static void dropExp(float x, float y, float rotation, float v, int amount){
-        if(net.server() || !net.active()){
-            v *= 1000f;
-            int n = amount / expAmount;
-            for(int i = 0; i < n; i++){
-                expOrb.createNet(Team.derelict, x, y, rotation, 0f, v, 1f);
-            }
-        }
+        spawn(x, y, rotation, false, v, amount / expAmount);
     }
 
     public static int orbs(int exp){
@@ -75,85 +113,255 @@ public class ExpOrbs {
         return exp < expAmount ? 0 : expAmount;
     }
 
-    public static final class ExpOrb extends BulletType{
-        {
-            absorbable = false;
-            damage = 8f;
-            drag = 0.05f;
-            lifetime = 180f;
-            speed = 0.0001f;
-            keepVelocity = false;
-            pierce = true;
-            hitSize = 2f;
-
-            hittable = false;
-            collides = false;
-            collidesTiles = false;
-            collidesAir = false;
-            collidesGround = false;
-
-            lightColor = expColor;
-            hitEffect = Fx.none;
-            shootEffect = Fx.none;
-            despawnEffect = UnityFx.orbDespawn;
-            layer = Layer.bullet - 0.01f;
+    /** 当前存在的经验球个数 (按权重计) */
+    public static int totalOrbs(){
+        int n = 0;
+        for(int i = 0; i < count; i++) n += weights[i];
+        return n;
+    }
+
+    /** 当前的经验球堆数 */
+    public static int stacks(){
+        return count;
+    }
+
+    public static void clear(){
+        for(int i = 0; i < count; i++) builds[i] = null;
+        count = 0;
+        resting.clear();
+    }
+
+    static void spawn(float x, float y, float rotation, boolean spread, float v, int orbs){
+        if(orbs <= 0 || !(net.server() || !net.active())) return;
+        int seed = Mathf.rand.nextInt();
+        ExpMetrics.add(ExpMetrics.toOrbs, world.buildWorld(x, y), orbs * expAmount);
+        burst(x, y, rotation, spread, v, orbs, seed);
+        if(net.server()){
+            Call.clientPacketReliable(burstPacket, x + " " + y + " " + rotation + " " + spread + " " + v + " " + orbs + " " + seed);
         }
+    }
 
-        private ExpOrb(){}
+    static void readBurst(String data){
+        String[] s = data.split(" ");
+        if(s.length < 7) return;
+        try{
+            burst(Float.parseFloat(s[0]), Float.parseFloat(s[1]), Float.parseFloat(s[2]), Boolean.parseBoolean(s[3]),
+                Float.parseFloat(s[4]), Integer.parseInt(s[5]), Integer.parseInt(s[6]));
+        }catch(NumberFormatException ignored){}
+    }
 
-        @Override
-        public void draw(Bullet b){
-            if((b.fin() > 0.5f) && Time.time % 14f < 7f) return;
+    /** 生成一次散播: orbs 个经验球分成至多 maxStacksPerBurst 堆, 方向由 seed 决定 */
+    static void burst(float x, float y, float rotation, boolean spread, float v, int orbs, int seed){
+        rand.setSeed(seed);
+        int stacks = Math.min(orbs, maxStacksPerBurst);
+        int base = orbs / stacks, extra = orbs % stacks;
+        float vel = speed * v * 1000f;
+        for(int i = 0; i < stacks; i++){
+            float angle = spread ? rand.random(360f) : rotation;
+            add(x, y, Angles.trnsx(angle, vel), Angles.trnsy(angle, vel), base + (i < extra ? 1 : 0), rand.nextInt());
+        }
+    }
 
-            Draw.color(expColor, Color.white, 0.1f + 0.1f * Mathf.sin(Time.time * 0.03f + b.id * 2f));
+    static void add(float x, float y, float vx, float vy, int weight, int seed){
+        if(count == xs.length) grow();
+        int i = count++;
+        xs[i] = x;
+        ys[i] = y;
+        vxs[i] = vx;
+        vys[i] = vy;
+        times[i] = 0f;
+        checks[i] = 0f;
+        weights[i] = weight;
+        seeds[i] = seed & 0xffff;
+        tiles[i] = -1;
+        kinds[i] = kindNone;
+        holders[i] = false;
+        builds[i] = null;
+    }
 
-            Fill.circle(b.x, b.y, 1.5f);
-            Lines.stroke(0.5f);
-            for(var i = 0; i < 4; i++){
-                mindustry.graphics.Drawf.tri(b.x, b.y, 4f, 4f + 1.5f * Mathf.sin(Time.time * 0.12f + b.id * 3f), i * 90 + Mathf.sin(Time.time * 0.04f + b.id * 5f) * 28f);
+    static void grow(){
+        int cap = xs.length * 2;
+        xs = Arrays.copyOf(xs, cap);
+        ys = Arrays.copyOf(ys, cap);
+        vxs = Arrays.copyOf(vxs, cap);
+        vys = Arrays.copyOf(vys, cap);
+        times = Arrays.copyOf(times, cap);
+        checks = Arrays.copyOf(checks, cap);
+        weights = Arrays.copyOf(weights, cap);
+        tiles = Arrays.copyOf(tiles, cap);
+        seeds = Arrays.copyOf(seeds, cap);
+        holders = Arrays.copyOf(holders, cap);
+        kinds = Arrays.copyOf(kinds, cap);
+        builds = Arrays.copyOf(builds, cap);
+    }
+
+    /** 用最后一个经验球覆盖下标 i */
+    static void remove(int i){
+        int last = --count;
+        if(i != last){
+            xs[i] = xs[last];
+            ys[i] = ys[last];
+            vxs[i] = vxs[last];
+            vys[i] = vys[last];
+            times[i] = times[last];
+            checks[i] = checks[last];
+            weights[i] = weights[last];
+            tiles[i] = tiles[last];
+            seeds[i] = seeds[last];
+            holders[i] = holders[last];
+            kinds[i] = kinds[last];
+            builds[i] = builds[last];
+        }
+        builds[last] = null;
+    }
+
+    static void update(){
+        if(count == 0 || !state.isPlaying()) return;
+        resting.clear();
+        float delta = Time.delta;
+        float dragScl = Math.max(1f - drag * delta, 0f);
+
+        for(int i = 0; i < count; ){
+            boolean moving = vxs[i] * vxs[i] + vys[i] * vys[i] > 0.001f * 0.001f;
+            if(moving) times[i] = 0f;
+
+            int tx = World.toTile(xs[i]), ty = World.toTile(ys[i]);
+            int pos = Point2.pack(tx, ty);
+            checks[i] += delta;
+            if(pos != tiles[i] || (builds[i] != null && !builds[i].isValid()) || (!moving && checks[i] >= restRecheck)){
+                resolve(i, tx, ty, pos);
+            }
+
+            if(!interact(i)){
+                remove(i);
+                continue;
+            }
+
+            xs[i] += vxs[i] * delta;
+            ys[i] += vys[i] * delta;
+            vxs[i] *= dragScl;
+            vys[i] *= dragScl;
+            times[i] += delta;
+
+            if(times[i] >= lifetime){
+                UnityFx.orbDespawn.at(xs[i], ys[i], 0f, expColor);
+                ExpMetrics.orbsLost(weights[i] * expAmount);
+                remove(i);
+                continue;
             }
-            Draw.color();
+
+            if(!moving && builds[i] == null && merge(i, pos)){
+                remove(i);
+                continue;
+            }
+            i++;
         }
+    }
 
-        @Override
-        public void update(Bullet b){
-            // v155.4: Bullet 无 moving() 方法, 用 vel.len() > 0 判断
-            if(b.vel.len() > 0.001f) b.time(0f);
+    /** 查询经验球所在格子, 缓存建筑与交互类型 */
+    static void resolve(int i, int tx, int ty, int pos){
+        tiles[i] = pos;
+        checks[i] = 0f;
+        Tile tile = world.tile(tx, ty);
+        Building build = tile == null ? null : tile.build;
+        builds[i] = build;
+        holders[i] = build instanceof ExpHolder;
+        kinds[i] = kindNone;
+        if(build == null) return;
+
+        if(tile.block() instanceof Conveyor conv){
+            //absorbLasers 作为经验传送带的标记
+            kinds[i] = conv.absorbLasers ? kindExpConveyor : kindConveyor;
+        }else if(tile.block() instanceof Incinerator){
+            kinds[i] = kindIncinerator;
+        }else if(tile.solid()){
+            kinds[i] = kindSolid;
+        }
+    }
 
-            Tile tile = world.tileWorld(b.x, b.y);
-            if(tile == null || tile.build == null) return;
+    /** 与缓存的建筑交互, 返回 false 表示经验球已被吸收/销毁 */
+    static boolean interact(int i){
+        Building build = builds[i];
+        if(build == null) return true;
 
-            if(tile.build instanceof ExpHolder exp && exp.acceptOrb() && exp.handleOrb(expAmount)){
-                b.remove();
+        if(holders[i]){
+            ExpHolder exp = (ExpHolder)build;
+            while(weights[i] > 0 && exp.acceptOrb() && exp.handleOrb(expAmount)){
+                weights[i]--;
+                ExpMetrics.add(ExpMetrics.fromOrbs, build, expAmount);
             }
-            else if(tile.block() instanceof Conveyor conv){
-                if(conv.absorbLasers){ //this will be used as a flag for exp conveyors
-                    expConveyor(b, conv, (ConveyorBuild)tile.build);
-                }else{
-                    conveyor(b, conv, (ConveyorBuild)tile.build);
-                }
+            if(weights[i] <= 0) return false;
+        }
+
+        switch(kinds[i]){
+            case kindConveyor -> {
+                ConveyorBuild conv = (ConveyorBuild)build;
+                if(conv.clogHeat > 0.5f || !conv.enabled) break;
+                float s = ((Conveyor)conv.block).speed / 3f;
+                vxs[i] += d4x[conv.rotation] * s * conv.delta();
+                vys[i] += d4y[conv.rotation] * s * conv.delta();
             }
-            else if(tile.block() instanceof Incinerator && ((IncineratorBuild)tile.build).heat > 0.5f){
-                b.remove();
+            case kindExpConveyor -> {
+                //PU_V8: 经验传送带速度更快 + 阻尼
+                ConveyorBuild conv = (ConveyorBuild)build;
+                if(conv.clogHeat > 0.5f || !conv.enabled) break;
+                float s = ((Conveyor)conv.block).speed * 2f;
+                vxs[i] = vxs[i] * 0.7f + d4x[conv.rotation] * s * conv.delta();
+                vys[i] = vys[i] * 0.7f + d4y[conv.rotation] * s * conv.delta();
             }
-            else if(tile.solid()){
-                b.trns(-1.1f * b.vel.x, -1.1f * b.vel.y);
-                b.vel.scl(0f);
+            case kindIncinerator -> {
+                if(((IncineratorBuild)build).heat > 0.5f){
+                    ExpMetrics.orbsLost(weights[i] * expAmount);
+                    return false;
+                }
+            }
+            case kindSolid -> {
+                xs[i] -= 1.1f * vxs[i];
+                ys[i] -= 1.1f * vys[i];
+                vxs[i] = vys[i] = 0f;
             }
+            default -> {}
         }
+        return true;
+    }
 
-        private void conveyor(Bullet b, Conveyor block, ConveyorBuild build){
-            if(build.clogHeat > 0.5f || !build.enabled) return;
-            float speed = block.speed / 3f;
-            b.vel.add(d4x[build.rotation] * speed * build.delta(), d4y[build.rotation] * speed * build.delta());
+    /** 把静止的经验球 i 并入同格内已处理的静止堆, 成功返回 true */
+    static boolean merge(int i, int pos){
+        int other = resting.get(pos, -1);
+        if(other == -1 || !Mathf.within(xs[i], ys[i], xs[other], ys[other], mergeRange)){
+            resting.put(pos, i);
+            return false;
         }
+        weights[other] += weights[i];
+        times[other] = Math.min(times[other], times[i]);
+        return true;
+    }
+
+    static void draw(){
+        if(count == 0) return;
+        float z = Draw.z();
+        Draw.z(Layer.bullet - 0.01f);
+        float cx = Core.camera.position.x, cy = Core.camera.position.y;
+        float hw = Core.camera.width / 2f + 16f, hh = Core.camera.height / 2f + 16f;
+
+        for(int i = 0; i < count; i++){
+            float x = xs[i], y = ys[i];
+            if(Math.abs(x - cx) > hw || Math.abs(y - cy) > hh) continue;
+            if(times[i] / lifetime > 0.5f && Time.time % 14f < 7f) continue;
 
-        /** PU_V8: 经验传送带 (absorbLasers=true 标记), 速度更快 + 阻尼 */
-        private void expConveyor(Bullet b, Conveyor block, ConveyorBuild build){
-            if(build.clogHeat > 0.5f || !build.enabled) return;
-            float speed = block.speed * 2f;
-            b.vel.scl(0.7f);
-            b.vel.add(d4x[build.rotation] * speed * build.delta(), d4y[build.rotation] * speed * build.delta());
+            int id = seeds[i];
+            //堆越大画得越大, 但不超过两倍
+            float scl = Math.min(2f, 1f + Mathf.log2(weights[i]) * 0.25f);
+            Draw.color(expColor, Color.white, 0.1f + 0.1f * Mathf.sin(Time.time * 0.03f + id * 2f));
+
+            Fill.circle(x, y, 1.5f * scl);
+            Lines.stroke(0.5f);
+            for(var j = 0; j < 4; j++){
+                Drawf.tri(x, y, 4f * scl, (4f + 1.5f * Mathf.sin(Time.time * 0.12f + id * 3f)) * scl, j * 90 + Mathf.sin(Time.time * 0.04f + id * 5f) * 28f);
+            }
+            Drawf.light(x, y, lightRadius * scl, expColor, 0.3f);
         }
+        Draw.color();
+        Draw.z(z);
     }
 }
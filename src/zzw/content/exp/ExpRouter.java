@@ -28,6 +28,13 @@ public class ExpRouter extends Junction {
     public class ExpRouterBuild extends JunctionBuild implements ExpHolder{
         public float reload = reloadTime;
 
+        @Override
+        public void update(){
+            long t = ExpMetrics.begin();
+            super.update();
+            ExpMetrics.end(block, t);
+        }
+
         @Override
         public void updateTile(){
             super.updateTile();
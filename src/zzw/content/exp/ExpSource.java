@@ -41,12 +41,23 @@ public class ExpSource extends Block {
     }
 
     public class ExpSourceBuild extends Building {
+        @Override
+        public void update(){
+            long t = ExpMetrics.begin();
+            super.update();
+            ExpMetrics.end(block, t);
+        }
+
         @Override
         public void updateTile(){
             if(enabled && timer.get(produceTimer, reload)){
                 ExpOrbs.spreadExp(x, y, amount, 6f);
+                ExpMetrics.add(ExpMetrics.generated, team, ExpOrbs.convertedExp(amount));
                 for(Building b : proximity){
-                    if(b instanceof ExpHolder exp) exp.handleExp(99999999);
+                    //经验虚空接收任意数量, 不计入
+                    if(b instanceof ExpHolder exp && !(b instanceof ExpVoid.ExpVoidBuild)){
+                        ExpMetrics.add(ExpMetrics.generated, team, exp.handleExp(99999999));
+                    }
                 }
             }
         }
@@ -54,6 +54,13 @@ public class ExpTank extends Block {
     public class ExpTankBuild extends Building implements ExpHolder{
         public int exp = 0;
 
+        @Override
+        public void update(){
+            long t = ExpMetrics.begin();
+            super.update();
+            ExpMetrics.end(block, t);
+        }
+
         @Override
         public int getExp(){
             return exp;
@@ -4,6 +4,7 @@ import arc.*;
 import arc.audio.*;
 import arc.graphics.g2d.*;
 import arc.math.*;
+import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
 import mindustry.gen.*;
@@ -86,11 +87,17 @@ public class ExpTower extends ExpTank {
         return new TextureRegion[]{topRegion, region}; //cursed
     }
 
-    public class ExpTowerBuild extends ExpTankBuild {
+    public class ExpTowerBuild extends ExpTankBuild implements ExpTransfers.Sender {
         public float reload = 0f;
         protected Tile lastTarget = null;
         private float heat = 0f;
         private int lastSent = 0;
+        private boolean queued;
+
+        /** 射线上的经验持有者 (按距离排序) 及命中的格子, 世界拓扑或朝向变化前一直复用 */
+        protected final Seq<Building> rayTargets = new Seq<>();
+        protected final Seq<Tile> rayTiles = new Seq<>();
+        private int rayVersion = -1, rayKey = -1;
 
         @Override
         public int unloadExp(int amount){
@@ -174,14 +181,32 @@ public class ExpTower extends ExpTank {
             Draw.reset();
         }
 
+        /** 重置装填并排入经验传输队列, 实际发送在下一次 {@link ExpTransfers} 结算时进行 */
         public void shoot(){
             if(!enabled) return;
             reload = 0;
             if(exp <= 0) return;
+            ExpTransfers.queue(this);
+        }
+
+        @Override
+        public boolean queued(){
+            return queued;
+        }
+
+        @Override
+        public void queued(boolean queued){
+            this.queued = queued;
+        }
+
+        @Override
+        public void transfer(){
+            if(exp <= 0) return;
 
             int a = shootExp(buffer ? bufferExp : exp);
             if(a > 0){
                 exp -= a;
+                ExpMetrics.add(ExpMetrics.transferred, team, a);
                 heat = manualReload;
                 lastSent = a;
                 shootSound.at(x, y, 1f, shootSoundVolume);
@@ -189,20 +214,49 @@ public class ExpTower extends ExpTank {
         }
 
         public int shootExp(int amount){
-            for(int i = 1; i <= range; i++){
-                Tile t = world.tile(tile.x + d4x(rotation) * i, tile.y + d4y(rotation) * i);
-                if(t != null && t.build instanceof ExpHolder exp){
-                    int a = exp.handleTower(amount, laserRotation());
-                    if(a > 0){
-                        lastTarget = t;
-                        return a;
-                    }
+            updateRay();
+            for(int i = 0; i < rayTargets.size; i++){
+                Building b = rayTargets.get(i);
+                if(!b.isValid()) continue;
+                int a = ((ExpHolder)b).handleTower(amount, laserRotation());
+                if(a > 0){
+                    lastTarget = rayTiles.get(i);
+                    return a;
                 }
             }
 
             return 0;
         }
 
+        /** 朝向 (含斜向) 的编号, 变化时射线缓存失效 */
+        public int rayKey(){
+            return rotation;
+        }
+
+        /** 射线范围内有经验方块加入/移出 ({@link ExpIndex#stamp}) 或朝向变化时重新计算射线目标 */
+        public void updateRay(){
+            int key = rayKey();
+            //覆盖直线与斜向射线的包围盒
+            int stamp = ExpIndex.stamp(tile.x - range, tile.y - range, tile.x + range, tile.y + range);
+            if(rayVersion == stamp && rayKey == key) return;
+            rayVersion = stamp;
+            rayKey = key;
+            rayTargets.clear();
+            rayTiles.clear();
+            castRay();
+        }
+
+        protected void castRay(){
+            int dx = d4x(rotation), dy = d4y(rotation);
+            ExpIndex.raycast(tile.x, tile.y, dx, dy, range, (b, step) -> {
+                if(b instanceof ExpHolder){
+                    rayTargets.add(b);
+                    rayTiles.add(world.tile(tile.x + dx * step, tile.y + dy * step));
+                }
+                return false;
+            });
+        }
+
         @Override
         public void read(Reads read, byte revision){
             super.read(read, revision);
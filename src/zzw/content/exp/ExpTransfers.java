@@ -0,0 +1,91 @@
+package zzw.content.exp;
+
+import arc.*;
+import arc.struct.*;
+import mindustry.game.*;
+import mindustry.game.EventType.*;
+import mindustry.gen.*;
+
+import static mindustry.Vars.*;
+
+/**
+ * 经验传输管线 - ExpTower / DiagonalTower / ExpNode 的发射按 tick 分批结算
+ * <p>
+ * 原版在 shoot() 中同步调用目标的 handleTower(), 目标炮塔又会同步 shoot(), 长炮塔链在一次调用里递归到底。
+ * 这里发射方只把自己放入所属队伍的队列 ({@link #queue}), 每 tick 开始时 (Trigger.update) 统一结算:
+ * <ul>
+ *   <li>每个发射方每 tick 最多结算一次</li>
+ *   <li>结算过程中新入队的发射方 (被命中后立即发射的炮塔) 留到下一 tick, 经验每 tick 沿链前进一跳</li>
+ *   <li>每 tick 最多结算 {@link #maxPerTick} 个, 剩余的顺延</li>
+ * </ul>
+ */
+public class ExpTransfers{
+    /** 每 tick 最多结算的发射方数量 */
+    public static int maxPerTick = 4096;
+
+    static final Seq<Building>[] queues = new Seq[Team.all.length];
+    static final Seq<Building> processing = new Seq<>(false, 64, Building.class);
+    static boolean registered;
+
+    /** 发射方: 入队后在结算阶段由 {@link #transfer()} 真正发送经验 */
+    public interface Sender{
+        /** 是否已在队列中, 防止重复入队 */
+        boolean queued();
+
+        void queued(boolean queued);
+
+        void transfer();
+    }
+
+    /** 注册每 tick 的结算, 由 Z_Exp.load() 调用 */
+    public static void init(){
+        if(registered) return;
+        registered = true;
+        Events.run(Trigger.update, ExpTransfers::update);
+        Events.on(WorldLoadEvent.class, e -> clear());
+        Events.on(ResetEvent.class, e -> clear());
+    }
+
+    /** 把发射方放入其队伍的队列, 下一次结算时发送 */
+    public static <T extends Building & Sender> void queue(T build){
+        if(build.queued()) return;
+        Seq<Building> seq = queues[build.team.id];
+        if(seq == null) seq = queues[build.team.id] = new Seq<>(true, 16, Building.class);
+        build.queued(true);
+        seq.add(build);
+    }
+
+    public static void clear(){
+        for(Seq<Building> seq : queues){
+            if(seq == null) continue;
+            seq.each(b -> ((Sender)b).queued(false));
+            seq.clear();
+        }
+        processing.clear();
+    }
+
+    static void update(){
+        if(!state.isPlaying()) return;
+        int budget = maxPerTick;
+        for(int t = 0; t < queues.length && budget > 0; t++){
+            Seq<Building> seq = queues[t];
+            if(seq == null || seq.isEmpty()) continue;
+
+            //取出本 tick 要结算的部分, 结算中新入队的进入 seq 等待下一 tick
+            int n = Math.min(seq.size, budget);
+            budget -= n;
+            processing.clear();
+            processing.addAll(seq.items, 0, n);
+            if(n == seq.size) seq.clear();
+            else seq.removeRange(0, n - 1);
+
+            for(int i = 0; i < processing.size; i++){
+                Building b = processing.items[i];
+                Sender s = (Sender)b;
+                s.queued(false);
+                if(b.isValid()) s.transfer();
+            }
+        }
+        processing.clear();
+    }
+}
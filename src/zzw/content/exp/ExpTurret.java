@@ -50,6 +50,8 @@ public class ExpTurret extends Turret {
 
     //damage resist feature for all blocks
     public EField<Float> damageReduction;
+    /** level currently written into the block fields by {@link #setEFields(int)}; they are shared by every build */
+    protected int appliedLevel = -1;
     //optional drawer
     public @Nullable DrawLevel draw = null;
 
@@ -63,6 +65,7 @@ public class ExpTurret extends Turret {
         if(expFields == null) expFields = new EField[]{};
         maxExp = requiredExp(maxLevel);
         if(expLevel(maxExp) < maxLevel) maxExp++; //floating point error
+        for(EField<?> f : expFields) f.compile(maxLevel);
 
         //check for range field
         for(EField<?> f : expFields){
@@ -82,6 +85,7 @@ public class ExpTurret extends Turret {
 
         if(pregrade != null && pregradeLevel < 0) pregradeLevel = pregrade.maxLevel;
         if(damageReduction == null) damageReduction = new EField.EExpoZero(f -> {}, 0.1f, Mathf.pow(4f + size, 1f / maxLevel), true, null, v -> Strings.autoFixed(Mathf.roundPositive(v * 10000) / 100f, 2)+ "%");
+        damageReduction.compile(maxLevel);
     }
 
     @Override
@@ -209,7 +213,7 @@ public class ExpTurret extends Turret {
     }
 
     public int expLevel(int e){
-        return Math.min(maxLevel, (int)(Mathf.sqrt(e / (5f * expScale))));
+        return LevelCache.level(e, expScale, maxLevel);
     }
 
     public float expCap(int l){
@@ -219,17 +223,22 @@ public class ExpTurret extends Turret {
     }
 
     public int requiredExp(int l){
-        return l * l * 5 * expScale;
+        return LevelCache.required(l, expScale);
     }
 
+    /** Writes the stats of level {@code l} into the block fields, unless they already hold that level. */
     public void setEFields(int l){
+        if(l == appliedLevel) return;
+        appliedLevel = l;
         for(EField<?> f : expFields){
-            f.setLevel(l);
+            f.apply(l);
         }
     }
 
     public class ExpTurretBuild extends TurretBuild implements ExpHolder, LevelHolder {
         public int exp;
+        /** 等级缓存, 见 {@link LevelCache} */
+        protected final LevelCache levelCache = new LevelCache();
         public @Nullable
         ExpHub.ExpHubBuild hub = null;
 
@@ -241,12 +250,11 @@ public class ExpTurret extends Turret {
 
             int before = level();
             exp += e;
-            int after = level();
-
             if(exp > maxExp) exp = maxExp;
             if(exp < 0) exp = 0;
 
-            if(after > before) levelup();
+            //区间内只是两次比较, 越过上界时才重算等级
+            if(exp >= levelCache.upper && level() > before) levelup();
             return e;
         }
 
@@ -289,7 +297,7 @@ public class ExpTurret extends Turret {
 
         @Override
         public int level(){
-            return expLevel(exp);
+            return levelCache.get(exp, expScale, maxLevel);
         }
 
         @Override
@@ -298,11 +306,8 @@ public class ExpTurret extends Turret {
         }
 
         public float expf(){
-            int lv = level();
-            if(lv >= maxLevel) return 1f;
-            float lb = expCap(lv - 1);
-            float lc = expCap(lv);
-            return ((float) exp - lb) / (lc - lb);
+            level();
+            return levelCache.progress(exp);
         }
 
         @Override
@@ -331,8 +336,10 @@ public class ExpTurret extends Turret {
         //updateTile is untouched
         @Override
         public void update(){
+            long t = ExpMetrics.begin();
             if(updateExpFields) setEFields(level());
             super.update();
+            ExpMetrics.end(block, t);
         }
 
         /** ★ 修复: range 为 block 级共享字段, 多个不同等级炮台同时存在时会被覆写.
@@ -340,7 +347,7 @@ public class ExpTurret extends Turret {
         @Override
         public float range(){
             if(rangeField != null){
-                float r = rangeField.fromLevel(level());
+                float r = rangeField.floatAt(level());
                 if(peekAmmo() != null){
                     return r + peekAmmo().rangeChange;
                 }
@@ -407,7 +414,7 @@ public class ExpTurret extends Turret {
 
         @Override
         public void drawSelect(){
-            Drawf.dashCircle(x, y, rangeField == null ? range : rangeField.fromLevel(level()), team.color);
+            Drawf.dashCircle(x, y, rangeField == null ? range : rangeField.floatAt(level()), team.color);
         }
 
         @Override
@@ -429,10 +436,10 @@ public class ExpTurret extends Turret {
             t.clearChildren();
             t.defaults().height(18f).pad(4);
             final int l = level();
-            if(damageReduction.fromLevel(level()) >= 0.01f){
+            if(damageReduction.floatAt(level()) >= 0.01f){
                 Image ii = new Image(Icon.defense, Pal.health);
                 ii.setSize(14f);
-                Label ll = new Label(() -> Mathf.roundPositive(damageReduction.fromLevel(level()) * 100) + "");
+                Label ll = new Label(() -> Mathf.roundPositive(damageReduction.floatAt(level()) * 100) + "");
                 ll.setStyle(new Label.LabelStyle(Styles.outlineLabel));
                 //ll.setColor(UnityPal.armor);
                 ll.setSize(26f, 18f);
@@ -453,7 +460,7 @@ public class ExpTurret extends Turret {
 
         @Override
         public float handleDamage(float amount){
-            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.fromLevel(level()));
+            return super.handleDamage(amount) * Mathf.clamp(1f - damageReduction.floatAt(level()));
         }
 
         @Override
@@ -493,15 +500,13 @@ public class ExpTurret extends Turret {
     }
 
     //reloadtime calculation sucks
-    public class LinearReloadTime extends EField<Float> {
-        public Floatc set;
+    public class LinearReloadTime extends EField.EFloat {
         public float start, scale;
 
         public LinearReloadTime(Floatc set, float start, float scale){
-            super(Stat.reload);
+            super(set, Stat.reload);
             this.start = start;
             this.scale = scale;
-            this.set = set;
         }
 
         @Override
@@ -509,11 +514,6 @@ public class ExpTurret extends Turret {
             return start + l * scale;
         }
 
-        @Override
-        public void setLevel(int l){
-            set.get(fromLevel(l));
-        }
-
         @Override
         public String toString(){
             return Core.bundle.format("field.linearreload", Strings.autoFixed(shoot.shots * 60f / start, 2), Strings.autoFixed(shoot.shots * 60f / (start + scale * maxLevel), 2));
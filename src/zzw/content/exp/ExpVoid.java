@@ -26,11 +26,18 @@ public class ExpVoid extends Block {
     }
 
     public class ExpVoidBuild extends Building implements ExpHolder{
+        @Override
+        public void update(){
+            long t = ExpMetrics.begin();
+            super.update();
+            ExpMetrics.end(block, t);
+        }
+
         @Override
         public void updateTile(){
             if(enabled && timer.get(produceTimer, reload)){
                 for(Building b : proximity){
-                    if(b instanceof ExpHolder exp) exp.unloadExp(99999999);
+                    if(b instanceof ExpHolder exp) ExpMetrics.add(ExpMetrics.consumed, team, exp.unloadExp(99999999));
                 }
             }
         }
@@ -42,6 +49,7 @@ public class ExpVoid extends Block {
 
         @Override
         public int handleExp(int amount){
+            ExpMetrics.add(ExpMetrics.consumed, team, amount);
             return amount;
         }
 
@@ -52,6 +60,7 @@ public class ExpVoid extends Block {
 
         @Override
         public boolean handleOrb(int orbExp){
+            ExpMetrics.add(ExpMetrics.consumed, team, orbExp);
             return true;
         }
     }
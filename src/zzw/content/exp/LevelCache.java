@@ -0,0 +1,45 @@
+package zzw.content.exp;
+
+/**
+ * 经验等级缓存 - ExpTurret / ExpKoruhConveyor / ExpLimitWall (含 LevelLimitWall, ShieldWall) 共用
+ * <p>
+ * 等级曲线为 requiredExp(l) = 5 * expScale * l², 即 level = ⌊√(exp / (5 * expScale))⌋。
+ * 缓存当前等级所在的经验区间 [{@link #lower}, {@link #upper}), 经验值留在区间内时 {@link #get} 只做两次比较;
+ * 越过边界时才用整数开方重新计算等级与区间。
+ */
+public class LevelCache{
+    /** 缓存的等级 */
+    public int level;
+    /** 当前等级的经验下界 (含) 与上界 (不含); 初始为空区间, 保证首次调用时计算 */
+    public int lower = 1, upper = 0;
+
+    /** exp 对应的等级, 只有越过缓存区间边界时才重新计算 */
+    public int get(int exp, int expScale, int maxLevel){
+        if(exp >= lower && exp < upper) return level;
+        int l = level(exp, expScale, maxLevel);
+        level = l;
+        lower = required(l, expScale);
+        upper = l >= maxLevel ? Integer.MAX_VALUE : required(l + 1, expScale);
+        return l;
+    }
+
+    /** 当前等级内的进度 [0, 1], 需先调用 {@link #get} */
+    public float progress(int exp){
+        if(upper == Integer.MAX_VALUE) return 1f;
+        return (float)(exp - lower) / (upper - lower);
+    }
+
+    public static int required(int l, int expScale){
+        return l * l * 5 * expScale;
+    }
+
+    /** 整数形式的 ⌊√(exp / (5 * expScale))⌋, 不受浮点误差影响 */
+    public static int level(int exp, int expScale, int maxLevel){
+        if(exp <= 0) return 0;
+        int q = exp / (5 * expScale);
+        int l = (int)Math.sqrt(q);
+        while(l * l > q) l--;
+        while((l + 1) * (l + 1) <= q) l++;
+        return Math.min(maxLevel, l);
+    }
+}
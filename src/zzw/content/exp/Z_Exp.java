@@ -70,6 +70,11 @@ public class Z_Exp {
     public static OmniLiquidTurret kelvinLaserTurret;
 
     public static void load() {
+        ExpIndex.init();
+        ExpOrbs.init();
+        ExpTransfers.init();
+        ExpMetrics.init();
+
         //region 经验存储运输
         expTank = new ExpTank("exp-tank"){{
             requirements(Category.effect, ItemStack.with(Items.copper, 100, Z_Items.denseAlloy, 100, Items.graphite, 30));
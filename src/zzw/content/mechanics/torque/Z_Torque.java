@@ -1,6 +1,12 @@
 package zzw.content.mechanics.torque;
 
+import arc.Core;
+import arc.Events;
+import mindustry.Vars;
 import mindustry.content.Items;
+import mindustry.game.EventType.ClientLoadEvent;
+import mindustry.game.EventType.ResetEvent;
+import mindustry.game.EventType.Trigger;
 import mindustry.type.Category;
 import mindustry.world.meta.BuildVisibility;
 import zzw.content.Z_Items;
@@ -23,6 +29,9 @@ import zzw.content.mechanics.torque.blocks.power.WaterTurbine;
 import zzw.content.mechanics.torque.blocks.power.WindTurbine;
 import zzw.content.mechanics.torque.blocks.production.AugerDrill;
 import zzw.content.mechanics.torque.blocks.production.MechanicalExtractor;
+import zzw.content.mechanics.torque.graph.BaseGraph;
+import zzw.content.mechanics.torque.graph.GraphRebuildQueue;
+import zzw.content.mechanics.torque.graph.GraphScheduler;
 import zzw.content.mechanics.torque.graphs.GraphCrucible;
 import zzw.content.mechanics.torque.graphs.GraphHeat;
 import zzw.content.mechanics.torque.graphs.GraphTorque;
@@ -81,6 +90,16 @@ public class Z_Torque{
     public static CastingMold castingMold;
 
     public static void load(){
+        // 图网络按逻辑帧去重更新 (不依赖渲染帧 id, 服务器也能正常推进)
+        Events.run(Trigger.update, BaseGraph::tick);
+        Events.on(ResetEvent.class, e -> {
+            GraphRebuildQueue.clear();
+            GraphScheduler.clear();
+        });
+        GraphScheduler.parallel = Core.settings.getBool("torque-parallel-graphs", false);
+        // 设置 → 游戏 中的开关, 切换后立即生效
+        Events.on(ClientLoadEvent.class, e -> Vars.ui.settings.game.checkPref("torque-parallel-graphs", false, v -> GraphScheduler.parallel = v));
+
         // ===== 生产方块 (扭矩消耗) =====
         // auger-drill (PU_V8 L2881): 3x3, GraphTorqueConsume(45f, 8f, 1.5f, 0.03f, 0.15f)
         // 效率调优: oversupplyFalloff 0.7→1.5 (衰减小一点), drillTime 400→300 (基础产矿提高)
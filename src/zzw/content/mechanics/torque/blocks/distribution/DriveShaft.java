@@ -35,8 +35,8 @@ public class DriveShaft extends GraphBlock{
         public void onNeighboursChanged(){
             baseSpriteIndex = 0;
             torque().eachNeighbourValue(n -> {
-                if(rotation == 1 || rotation == 2) baseSpriteIndex += n.equals(0) ? 2 : 1;
-                else baseSpriteIndex += n.equals(0) ? 1 : 2;
+                if(rotation == 1 || rotation == 2) baseSpriteIndex += n == 0 ? 2 : 1;
+                else baseSpriteIndex += n == 0 ? 1 : 2;
             });
         }
 
@@ -1,22 +1,18 @@
 package zzw.content.mechanics.torque.graph;
 
-import arc.*;
-import arc.math.geom.*;
 import arc.struct.*;
-import mindustry.world.*;
-import zzw.content.mechanics.torque.blocks.GraphBlockBase.*;
 import zzw.content.mechanics.torque.graphs.*;
-import zzw.content.mechanics.torque.meta.*;
 import zzw.content.mechanics.torque.modules.*;
 
-import java.util.*;
-
 public abstract class BaseGraph<M extends GraphModule<? extends Graph, M, G>, G extends BaseGraph<M, G>>{
     public final OrderedSet<M> connected = new OrderedSet<>();
     public final int id;
     private static int lastId;
-    long lastFrameUpdated;
-    M target;
+    /** Logic tick counter, advanced once per {@code Trigger.update}; independent of rendering so headless servers tick too. */
+    private static long updateTick;
+    long lastTickUpdated = -1;
+    /** A sleeping graph skips updateDirect()/updateGraph() until something calls {@link #wake()}. */
+    boolean sleeping, woken;
 
     {
         id = lastId++;
@@ -24,31 +20,74 @@ public abstract class BaseGraph<M extends GraphModule<? extends Graph, M, G>, G
 
     BaseGraph(){}
 
+    public static void tick(){
+        updateTick++;
+        GraphRebuildQueue.flush();
+        GraphScheduler.solve();
+    }
+
     public void init(M module){
         connected.add(module);
+        wake();
         updateOnGraphChanged();
         addMergeStats(module);
     }
 
     public abstract G create(/*building*/);
 
-    G copyGraph(M module/*building*/){
-        G copygraph = create();
-        copygraph.init(module);
-        copygraph.copyGraphStatsFrom((G)this);
-        return copygraph;
-    }
-
     abstract void copyGraphStatsFrom(G graph);
 
     public void update(){
-        long frameId = Core.graphics.getFrameId();
-        if(frameId == lastFrameUpdated) return;
-        lastFrameUpdated = frameId;
+        if(updateTick == lastTickUpdated) return;
+        lastTickUpdated = updateTick;
+        if(GraphScheduler.enabled()){
+            GraphScheduler.submit(this);
+            return;
+        }
+        step();
+    }
+
+    /** Runs one update of this graph on the calling thread. */
+    void step(){
+        if(sleeping){
+            updateSleeping();
+            return;
+        }
+        woken = false;
         updateDirect();
         updateGraph();
+        if(!woken && isSettled()) sleeping = true;
     }
 
+    /**
+     * Whether, after {@link #prepareSolve()}, {@code updateDirect()/updateGraph()} only read and write state owned by
+     * this graph, so {@link GraphScheduler} may run them on a worker thread.
+     */
+    boolean parallelSafe(){
+        return false;
+    }
+
+    /** Logic-thread work that must happen before a parallel solve, such as repacking module data. */
+    void prepareSolve(){}
+
+    /** Marks this graph as needing simulation again; call whenever an input of the graph changes. */
+    public void wake(){
+        sleeping = false;
+        woken = true;
+    }
+
+    public boolean sleeping(){
+        return sleeping;
+    }
+
+    /** Whether the last update left the graph in a state that further updates would not change. */
+    boolean isSettled(){
+        return false;
+    }
+
+    /** Cheap per-tick work that must continue while the graph sleeps. */
+    void updateSleeping(){}
+
     abstract void updateOnGraphChanged();
 
     abstract void updateGraph();
@@ -61,6 +100,7 @@ public abstract class BaseGraph<M extends GraphModule<? extends Graph, M, G>, G
 
     void addBuilding(M module/*building*/, int connectIndex){
         connected.add(module);
+        wake();
         updateOnGraphChanged();
         module.setNetworkOfPort(connectIndex, (G)this);
         addMergeStats(module);
@@ -81,159 +121,154 @@ public abstract class BaseGraph<M extends GraphModule<? extends Graph, M, G>, G
             if(!connected.contains(module) && module.replaceNetwork(graph, (G)this))
                 connected.add(module);
         }
+        wake();
         updateOnGraphChanged();
     }
 
     abstract void mergeStats(G graph);
 
-    void killGraph(){
-        connected.clear();
-    }
+    /**
+     * Finds the parts of this graph that become disconnected once {@code module} is gone.
+     * <p>
+     * A breadth-first search is grown from every neighbour of {@code module} on this graph, one node per
+     * search per round. Searches that meet are merged; a search that runs out of nodes has found a part
+     * that must be split off. The walk stops as soon as a single search is left.
+     * <p>
+     * When the removal does split the graph, the cost is proportional to the detached parts, because the
+     * searches advance in lockstep. When it does not, the searches only stop once they meet. If
+     * {@code module} lies on a cycle, they walk that cycle, so the cost is O(cycle length), which can be
+     * all of {@link #connected}. No dynamic-connectivity index is kept, so removals inside cycles stay linear.
+     */
+    Seq<Seq<M>> findSplitComponents(M module){
+        Seq<M> roots = new Seq<>(4);
+        for(int i = 0, len = module.countNeighbours(); i < len; i++){
+            M n = module.neighbourAt(i);
+            if(module.getNetworkOfPort(module.neighbourPortAt(i)) == this && connected.contains(n) && !roots.contains(n, true)) roots.add(n);
+        }
+        Seq<Seq<M>> out = new Seq<>();
+        int k = roots.size;
+        if(k <= 1) return out;
+
+        ObjectIntMap<M> owner = new ObjectIntMap<>();
+        int[] parents = new int[k];
+        boolean[] done = new boolean[k];
+        Queue<M>[] fronts = new Queue[k];
+        Seq<M>[] members = new Seq[k];
+        owner.put(module, -1);
+        for(int i = 0; i < k; i++){
+            M root = roots.get(i);
+            parents[i] = i;
+            fronts[i] = new Queue<>();
+            members[i] = new Seq<>();
+            fronts[i].addLast(root);
+            members[i].add(root);
+            owner.put(root, i);
+        }
 
-    boolean isAtriculationPoint(M module/*building*/){
-        Seq<M> neighs = new Seq<>(4);
-        module.eachNeighbour(n -> {
-            if(module.getNetworkOfPort(n.value) == this) neighs.add(n.key);
-        });
-        int neighbourIndex = 1;
-        if(neighbourIndex >= neighs.size) target = null;
-        else target = neighs.get(neighbourIndex);
-        PQueue<M> front = new PQueue<>();
-        front.comparator = (a, b) -> {
-            if(target == null) return 99999999;
-            return a.hueristic(target.parent.build) - b.hueristic(target.parent.build);
-        };
-        front.add(neighs.get(0).d(0));
-        int giveUp = connected.size;
-        ObjectSet<M> visited = ObjectSet.with(module);
-        while(!front.empty()){
-            M current = front.poll();
-            if(current == target){
-                neighbourIndex++;
-                if(neighbourIndex == neighs.size) return false;
-                target = neighs.get(neighbourIndex);
-                while(target == null || visited.contains(target)){
-                    neighbourIndex++;
-                    if(neighbourIndex == neighs.size) return false;
-                    target = neighs.get(neighbourIndex);
+        int active = k;
+        while(active > 1){
+            for(int s = 0; s < k && active > 1; s++){
+                if(parents[s] != s || done[s]) continue;
+                if(fronts[s].isEmpty()){
+                    done[s] = true;
+                    out.add(members[s]);
+                    active--;
+                    continue;
+                }
+                M current = fronts[s].removeFirst();
+                for(int i = 0, len = current.countNeighbours(); i < len; i++){
+                    if(current.getNetworkOfPort(current.neighbourPortAt(i)) != this) continue;
+                    M n = current.neighbourAt(i);
+                    int o = owner.get(n, -2);
+                    if(o == -1) continue;
+                    if(o == -2){
+                        if(!connected.contains(n)) continue;
+                        owner.put(n, s);
+                        fronts[s].addLast(n);
+                        members[s].add(n);
+                        continue;
+                    }
+                    int other = findSearch(parents, o);
+                    if(other == s) continue;
+                    parents[other] = s;
+                    while(!fronts[other].isEmpty()) fronts[s].addLast(fronts[other].removeFirst());
+                    members[s].addAll(members[other]);
+                    members[other] = null;
+                    active--;
                 }
-                front.comparator = Comparator.comparingInt(a -> a.hueristic(target.parent.build));
             }
-            visited.add(current);
-            current.eachNeighbour(n -> {
-                if(visited.contains(n.key)) return;
-                if(current.getNetworkOfPort(n.value) == this) front.add(n.key.d(current.d + 4));
-            });
-            if(--giveUp < 0) return true;
         }
-        return true;
+        return out;
     }
 
+    static int findSearch(int[] parents, int i){
+        while(parents[i] != i){
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    /** Moves {@code part} out of this graph into a fresh one, sharing stats through {@link #splitStats}. */
+    void splitGraph(Seq<M> part){
+        G split = create();
+        split.copyGraphStatsFrom((G)this);
+        for(var m : part){
+            connected.remove(m);
+            if(m.replaceNetwork((G)this, split)) split.connected.add(m);
+        }
+        split.updateOnGraphChanged();
+        splitStats(split);
+        split.wake();
+    }
+
+    abstract void splitStats(G graph);
+
+    /** Called once by {@link #remove} before the detached parts are split off, while stats still include {@code removed}. */
+    void beginSplit(M removed){}
+
+    /** Called once by {@link #remove} after every detached part has been split off. */
+    void endSplit(M removed){}
+
     public void remove(M module/*building*/){
         if(!connected.contains(module)) return;
         int c = module.countNeighbours();
         if(c == 0) return;
-        if(c == 1 || !isAtriculationPoint(module)){
-            connected.remove(module);
-            module.eachNeighbourKey(n -> n.removeNeighbour(module));
-            updateOnGraphChanged();
-            return;
+        Seq<Seq<M>> parts = c == 1 ? null : findSplitComponents(module);
+        connected.remove(module);
+        for(int i = module.countNeighbours() - 1; i >= 0; i--) module.neighbourAt(i).removeNeighbour(module);
+        if(parts != null && parts.any()){
+            beginSplit(module);
+            for(var part : parts) splitGraph(part);
+            endSplit(module);
+            module.replaceNetwork((G)this, null);
         }
-        killGraph();
-        ObjectSet<G> networksAdded = new ObjectSet<>(c);
-        module.eachNeighbour(n -> {
-            G copyNet = module.getNetworkOfPort(n.value);
-            M temp = n.key;
-            if(copyNet == this){
-                M selfref = temp.getNeighbour(module);
-                if(selfref == null) return;
-                temp.setNetworkOfPort(temp.portIndex(selfref), copyNet.copyGraph(temp));
-            }
-        });
-        module.eachNeighbour(n -> {
-            if(module.getNetworkOfPort(n.value) == this){
-                M temp = n.key;
-                M selfref = temp.getNeighbour(module);
-                if(selfref == null) return;
-                G neiNet = temp.getNetworkOfPort(temp.portIndex(selfref));
-                if(!networksAdded.contains(neiNet)){
-                    networksAdded.add(neiNet);
-                    neiNet.rebuildGraphIndex(temp, temp.portIndex(selfref));
-                }
-            }
-        });
-        module.replaceNetwork((G)this, null);
+        wake();
+        updateOnGraphChanged();
     }
 
+    /** Rediscovers the connections of {@code module} right away, together with anything else already queued. */
     public void rebuildGraph(M module/*building*/){
-        rebuildGrpahWithSet(module, ObjectSet.with(module), -1);
+        GraphRebuildQueue.add(module);
+        GraphRebuildQueue.flush();
     }
 
-    public void rebuildGraphIndex(M module/*building*/, int index){
-        rebuildGrpahWithSet(module, ObjectSet.with(module), index);
-    }
-
-    void rebuildGrpahWithSet(M root, ObjectSet<M> searched, int rootIndex){
-        GraphTree tree = new GraphTree(root, rootIndex);
-        GraphTree current = tree;
-        int total = 0;
-        mainLoop:
-        while(current != null){
-            total++;
-
-            M buildConnector = current.module;
-            GraphBuildBase build = buildConnector.parent.build;
-            int index = current.parentConnectPort;
-
-            if(buildConnector.graph.accept == null) return;
-
-            Seq<GraphData> acceptPorts = buildConnector.acceptPorts;
-            if(index != -1) acceptPorts = buildConnector.getConnectedNeighbours(index);
-            M prevModule = null;//prevBuilding
-            searched.add(buildConnector);
-
-            for(int port = 0, len = acceptPorts.size; port < len; port++){
-                GraphData portInfo = acceptPorts.get(port);
-                int portIndex = portInfo.index;
-                if(buildConnector.getNetworkOfPort(portIndex) == null) continue;
-                if(!buildConnector.initialized()) return;
-                Tile tile = build.asBuilding().tile.nearby(portInfo.toPos);
-                if(tile == null) return;
-
-                if(tile.build instanceof GraphBuildBase other){
-                    M conModule = (M)other.getGraphConnector(root.type());//conbuild
-                    if(conModule == null || conModule == prevModule || conModule.dead() || !canConnect(current.module, conModule)) continue;
-                    G thisGraph = buildConnector.getNetworkOfPort(portIndex);
-                    if(conModule.parent.build.asBuilding().rotation != conModule.lastRecalc()) conModule.recalcPorts();
-                    Point2 fPos = portInfo.fromPos.cpy();
-                    fPos.x += build.tileX();
-                    fPos.y += build.tileY();
-                    int connectIndex = conModule.canConnect(fPos);
-                    if(connectIndex == -1) continue;
-                    buildConnector.addNeighbour(conModule, portIndex);
-                    conModule.addNeighbour(buildConnector, connectIndex);
-
-                    G conNet = conModule.getNetworkOfPort(connectIndex);
-                    if(!thisGraph.connected.contains(conModule) && conNet != null){
-                        if(!buildConnector.hasNetwork(conNet)){
-                            if(conNet.connected.contains(conModule)) thisGraph.mergeGraph(conNet);
-                            else thisGraph.addBuilding(conModule, connectIndex);
-                            if(!searched.contains(conModule)) current.children.add(new GraphTree(current, conModule, connectIndex));//isNetworkConnector omitted.
-                        }
-                    }
-                    prevModule = conModule;
-                }
-            }
-            Seq<GraphTree> children = current.children;
-            for(int i = 0, childLen = children.size; i < childLen; i++){
-                if(!children.get(i).complete){
-                    current = children.get(i);
-                    continue mainLoop;
-                }
+    /**
+     * Merges all of {@code graphs} into this one in a single pass, with one {@link #updateOnGraphChanged()} at the
+     * end. Used by {@link GraphRebuildQueue} instead of repeated {@link #mergeGraph(BaseGraph)} calls.
+     */
+    void mergeGraphs(Seq<G> graphs){
+        updateDirect();
+        for(var graph : graphs){
+            if(graph == this) continue;
+            graph.updateDirect();
+            mergeStats(graph);
+            for(var module : graph.connected){
+                if(!connected.contains(module) && module.replaceNetwork(graph, (G)this)) connected.add(module);
             }
-            current.complete = true;
-            current = current.parent;
         }
+        wake();
+        updateOnGraphChanged();
     }
 
     String connectedToString(){
@@ -241,23 +276,4 @@ public abstract class BaseGraph<M extends GraphModule<? extends Graph, M, G>, G
         for(var build : connected) s.append(build.parent.build.asBuilding().block.localizedName).append(", ");
         return s.toString();
     }
-
-    //내가 추가한것
-    class GraphTree{
-        boolean complete;
-        final GraphTree parent;
-        final Seq<GraphTree> children = new Seq<>(4);
-        final M module;//building
-        final int parentConnectPort;
-
-        GraphTree(GraphTree parent, M root, int rootIndex){
-            this.parent = parent;
-            module = root;
-            parentConnectPort = rootIndex;
-        }
-
-        GraphTree(M root, int rootIndex){
-            this(null, root, rootIndex);
-        }
-    }
 }
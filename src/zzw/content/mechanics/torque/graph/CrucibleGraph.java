@@ -3,6 +3,7 @@ package zzw.content.mechanics.torque.graph;
 import arc.graphics.Color;
 import arc.math.Mathf;
 import arc.math.geom.Geometry;
+import arc.struct.FloatSeq;
 import arc.struct.Seq;
 import arc.util.Time;
 import mindustry.type.Item;
@@ -13,6 +14,9 @@ import zzw.content.mechanics.torque.meta.CrucibleData;
 import zzw.content.mechanics.torque.meta.CrucibleRecipe;
 import zzw.content.mechanics.torque.meta.MeltInfo;
 import zzw.content.mechanics.torque.modules.GraphCrucibleModule;
+import zzw.content.mechanics.torque.modules.GraphHeatModule;
+
+import java.util.Arrays;
 
 /**
  * 坩埚网络 (PU132 unity.world.graph.CrucibleGraph 移植)
@@ -26,12 +30,27 @@ import zzw.content.mechanics.torque.modules.GraphCrucibleModule;
  *   <li>{@link #updateOnGraphChanged()} - 网络拓扑变化时重算容量和 tiling 索引</li>
  *   <li>{@link #updateColor()} - 根据熔融物颜色更新网络颜色</li>
  * </ol>
+ * <p>
+ * 熔融物按 {@link MeltInfo#id} 索引 ({@code byId}), 并用位掩码 {@code presentMask} 记录存在的种类,
+ * 合金配方先用 {@link CrucibleRecipe#inputMask} 过滤再逐项检查。
+ * 参与熔炼的方块温度每帧只采集一次到 {@code crafterTemps}, 各熔融物的平均熔化速度都基于该数组计算。
  */
 public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>{
     static final float[] capacityMul = new float[]{0f, 0.1f, 0.2f, 0.5f, 1f};
     public final Color color = Color.clear.cpy();
     final Seq<CrucibleData> contains = new Seq<>();
+    /** 按 MeltInfo id 索引的熔融物, 与 contains 同步 */
+    final CrucibleData[] byId = new CrucibleData[MeltInfo.all.length];
+    /** 第 id 位表示该熔融物存在 */
+    long presentMask;
+    /** 参与熔炼的方块的热量模块及本帧温度 */
+    GraphHeatModule[] crafterHeat = new GraphHeatModule[0];
+    float[] crafterTemps = new float[0];
+    int crafterCount;
     float totalVolume, totalCapacity, containedAmCache;
+    /** remove() 拆分前的总容量与各熔融物体积 (与 contains 同序), 所有拆出的子网络都按这份快照分配 */
+    float splitCapacity;
+    final FloatSeq splitVolumes = new FloatSeq();
     boolean containChanged = true, crafts = true;
 
     @Override
@@ -44,6 +63,7 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
         if(containChanged){
             containedAmCache = 0f;
             for(int i = 0, len = contains.size; i < len; i++) containedAmCache += contains.get(i).volume;
+            containChanged = false;
         }
         return containedAmCache;
     }
@@ -61,7 +81,28 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
 
     /** 根据 MeltInfo id 获取熔融物数据 */
     public CrucibleData getMeltFromID(int id){
-        return contains.find(i -> i.id == id);
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    void indexMelt(CrucibleData data){
+        byId[data.id] = data;
+        presentMask |= 1L << data.id;
+    }
+
+    /** 重建 id 索引 (contains 被整体替换后调用) */
+    void reindex(){
+        Arrays.fill(byId, null);
+        presentMask = 0L;
+        for(int i = 0, len = contains.size; i < len; i++) indexMelt(contains.get(i));
+        containChanged = true;
+    }
+
+    /** 用存档数据替换网络内容物 */
+    public void setContents(CrucibleData[] data){
+        contains.clear();
+        contains.addAll(data);
+        reindex();
+        wake();
     }
 
     /**
@@ -72,23 +113,19 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
      * @return 是否成功
      */
     public boolean addMeltItem(MeltInfo meltProd, float am, boolean liquid){
-        CrucibleData avalslot = null;
-        int totalContained = 0;
-
-        for(var i : contains){
-            if(i.id == meltProd.id) avalslot = i;
-            totalContained += i.volume;
-        }
-
-        if(totalContained + am > totalCapacity) return false;
+        if(getVolumeContained() + am > totalCapacity) return false;
+        CrucibleData avalslot = byId[meltProd.id];
         if(avalslot != null){
             if(liquid) addLiquidToSlot(avalslot, am);
             else addSolidToSlot(avalslot, am);
         }else{
-            contains.add(new CrucibleData(meltProd.id, am, liquid ? 1f : 0f, meltProd.item));
+            CrucibleData data = new CrucibleData(meltProd.id, am, liquid ? 1f : 0f, meltProd.item);
+            contains.add(data);
+            indexMelt(data);
         }
 
         containChanged = true;
+        wake();
         return true;
     }
 
@@ -109,6 +146,7 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
 
         if(slot.volume <= 0f || slot.meltedRatio <= 0f) slot.meltedRatio = 0f;
         containChanged = true;
+        wake();
     }
 
     /** 向指定槽位添加液体 (am 可为负, 表示取出) */
@@ -119,6 +157,13 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
 
         if(slot.volume <= 0f || slot.meltedRatio <= 0f) slot.meltedRatio = 0f;
         containChanged = true;
+        wake();
+    }
+
+    /** 坩埚为空时无需更新 (熔化/合金/蒸发都依赖内容物) */
+    @Override
+    boolean isSettled(){
+        return contains.isEmpty();
     }
 
     @Override
@@ -128,6 +173,7 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
     void updateOnGraphChanged(){
         totalCapacity = 0f;
         crafts = false;
+        rebuildCrafters();
 
         for(var module : connected){
             int bitmask = 0;
@@ -162,39 +208,55 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
         }
     }
 
+    /** 收集参与熔炼的方块 (拓扑变化时调用) */
+    void rebuildCrafters(){
+        int n = 0;
+        for(var module : connected){
+            if(module.graph.doesCrafting && module.parent.build.heat() != null) n++;
+        }
+        if(crafterHeat.length < n){
+            crafterHeat = new GraphHeatModule[n];
+            crafterTemps = new float[n];
+        }
+        int i = 0;
+        for(var module : connected){
+            if(!module.graph.doesCrafting) continue;
+            GraphHeatModule heat = module.parent.build.heat();
+            if(heat != null) crafterHeat[i++] = heat;
+        }
+        for(int j = n; j < crafterCount; j++) crafterHeat[j] = null;
+        crafterCount = n;
+    }
+
+    /** 每帧一次: 采集所有熔炼方块的温度 */
+    void gatherTemps(){
+        for(int i = 0; i < crafterCount; i++) crafterTemps[i] = crafterHeat[i].getTemp();
+    }
+
     /** 获取网络平均温度 (K) */
     public float getAverageTemp(){
+        if(crafterCount == 0) return 0f;
         float speed = 0f;
-        int count = 0;
 
-        for(var module : connected){
-            if(!module.graph.doesCrafting) continue;
-            speed += module.parent.build.heat().getTemp();
-            count++;
-        }
-        if(count == 0) return 0f;
-        return speed / count;
+        for(int i = 0; i < crafterCount; i++) speed += crafterHeat[i].getTemp();
+        return speed / crafterCount;
     }
 
     float getAverageTempDecay(float meltPoint, float meltSpeed, float tmpDep, float coolDep){
+        if(crafterCount == 0) return 0;
         float speed = 0f;
-        int count = 0;
-
-        for(var module : connected){
-            if(!module.graph.doesCrafting) continue;
 
-            float temp = module.parent.build.heat().getTemp();
+        for(int i = 0; i < crafterCount; i++){
+            float temp = crafterTemps[i];
 
             if(temp > meltPoint){
                 speed += (1f + temp / meltPoint * tmpDep) * meltSpeed;
             }else{
                 speed -= (1f - temp / meltPoint) * coolDep * meltSpeed;
             }
-            count++;
         }
-        if(count == 0) return 0;
 
-        return speed / count;
+        return speed / crafterCount;
     }
 
     float getAverageMeltSpeed(MeltInfo m, float tmpDep, float coolDep){
@@ -235,6 +297,7 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
         }
 
         float capcityMul = Mathf.sqrt(totalCapacity / 15f);
+        gatherTemps();
 
         for(var i : contains){
             float meltMul = Time.delta / i.volume;
@@ -253,38 +316,34 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
                 }
             }
         }
-        for(var z : CrucibleRecipe.all){
-            boolean valid = true;
+        for(int ri = 0, rlen = CrucibleRecipe.total(); ri < rlen; ri++){
+            CrucibleRecipe z = CrucibleRecipe.all[ri];
+            if((presentMask & z.inputMask) != z.inputMask) continue;
+
             float maxCraftable = 9999999f;
+            boolean valid = true;
             int len = z.input.length;
-            int[] inputSlots = new int[len];
 
             for(int r = 0; r < len; r++){
-                boolean found = false;
-                for(var ingre : contains){
-                    CrucibleRecipe.InputRecipe alyInput = z.input[r];
-                    if(MeltInfo.all[ingre.id] == alyInput.material && (!alyInput.needsLiquid || ingre.meltedRatio > 0f)){
-                        found = true;
-                        inputSlots[r] = ingre.id;
-                        maxCraftable = Math.min(maxCraftable, (alyInput.needsLiquid ? ingre.meltedRatio : 1f) * ingre.volume / alyInput.amount);
-                        break;
-                    }
-                }
-                if(!found){
+                CrucibleRecipe.InputRecipe alyInput = z.input[r];
+                CrucibleData ingre = byId[z.inputIds[r]];
+                if(alyInput.needsLiquid && ingre.meltedRatio <= 0f){
                     valid = false;
                     break;
                 }
+                maxCraftable = Math.min(maxCraftable, (alyInput.needsLiquid ? ingre.meltedRatio : 1f) * ingre.volume / alyInput.amount);
             }
             if(valid && maxCraftable > 0f){
                 float craftAm = Math.min(maxCraftable, z.alloySpeed * Time.delta * 0.2f * capcityMul);
-                if(craftAm <= 0f) return;
+                if(craftAm <= 0f) continue;
 
                 for(int r = 0; r < len; r++){
                     CrucibleRecipe.InputRecipe alyInput = z.input[r];
+                    CrucibleData ingre = byId[z.inputIds[r]];
                     if(alyInput.needsLiquid){
-                        addLiquidToSlot(contains.get(inputSlots[r]), -alyInput.amount * craftAm);
+                        addLiquidToSlot(ingre, -alyInput.amount * craftAm);
                     }else{
-                        contains.get(inputSlots[r]).volume -= alyInput.amount * craftAm;
+                        ingre.volume -= alyInput.amount * craftAm;
                         containChanged = true;
                     }
                 }
@@ -296,19 +355,54 @@ public class CrucibleGraph extends BaseGraph<GraphCrucibleModule, CrucibleGraph>
     }
 
     void removeEmptyMelts(){
-        contains.removeAll(i -> i.volume <= 0f);
+        for(int i = contains.size - 1; i >= 0; i--){
+            CrucibleData data = contains.get(i);
+            if(data.volume > 0f) continue;
+            contains.remove(i);
+            byId[data.id] = null;
+            presentMask &= ~(1L << data.id);
+            containChanged = true;
+        }
     }
 
     @Override
-    void killGraph(){
-        for(var module : connected){
-            Seq<CrucibleData> nc = new Seq<>();
-            float ratio = module.liquidCap / totalCapacity;
+    void beginSplit(GraphCrucibleModule removed){
+        splitCapacity = totalCapacity;
+        splitVolumes.clear();
+        for(var i : contains) splitVolumes.add(i.volume);
+    }
+
+    /** 拆分网络时, 按 子网络容量 / 拆分前总容量 把拆分前的熔融物分给拆出的子网络 */
+    @Override
+    void splitStats(CrucibleGraph graph){
+        if(splitCapacity <= 0f) return;
+        float ratio = Mathf.clamp(graph.totalCapacity / splitCapacity);
+
+        for(int k = 0; k < contains.size; k++){
+            CrucibleData i = contains.get(k);
+            float moved = Math.min(splitVolumes.get(k) * ratio, i.volume);
+            i.volume -= moved;
+            CrucibleData data = new CrucibleData(i.id, moved, i.meltedRatio, i.item);
+            graph.contains.add(data);
+            graph.indexMelt(data);
+        }
+        containChanged = graph.containChanged = true;
+    }
 
-            for(var i : contains) nc.add(new CrucibleData(i.id, i.volume * ratio, i.meltedRatio, i.item));
-            module.propsList.put(module.getPortOfNetwork(this), nc);
+    /** 被移除方块自己的份额随方块一起移除 (与原先 killGraph 的分配一致), 剩下的留在本网络 */
+    @Override
+    void endSplit(GraphCrucibleModule removed){
+        if(splitCapacity > 0f){
+            float ratio = Mathf.clamp(removed.liquidCap / splitCapacity);
+            for(int k = 0; k < contains.size; k++){
+                CrucibleData i = contains.get(k);
+                i.volume = Math.max(i.volume - splitVolumes.get(k) * ratio, 0f);
+            }
+            containChanged = true;
+            removeEmptyMelts();
         }
-        connected.clear();
+        splitCapacity = 0f;
+        splitVolumes.clear();
     }
 
     @Override
@@ -0,0 +1,135 @@
+package zzw.content.mechanics.torque.graph;
+
+import arc.struct.*;
+import mindustry.gen.*;
+import mindustry.world.*;
+import zzw.content.mechanics.torque.blocks.GraphBlockBase.*;
+import zzw.content.mechanics.torque.meta.*;
+import zzw.content.mechanics.torque.modules.*;
+
+/**
+ * Collects modules whose connections need to be rediscovered and rebuilds their graphs in one batch.
+ * <p>
+ * Every queued module probes its own ports and links up with the modules it finds. The graphs on both ends of each
+ * link are joined with a union-find, and every resulting set is merged into its largest graph through
+ * {@link BaseGraph#mergeGraphs(Seq)}, so each surviving graph sees a single {@code updateOnGraphChanged()} no matter
+ * how many modules were placed. The queue is flushed once per logic tick and whenever a queued module updates.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class GraphRebuildQueue{
+    static final OrderedSet<GraphModule> queue = new OrderedSet<>();
+    static final Seq<GraphModule> batch = new Seq<>(false, 64);
+    static final ObjectIntMap<BaseGraph> graphIndex = new ObjectIntMap<>();
+    static final Seq<BaseGraph> graphs = new Seq<>(false, 64);
+    static final IntMap<Seq<BaseGraph>> sets = new IntMap<>();
+    static int[] parents = new int[64];
+    static boolean flushing;
+
+    public static void add(GraphModule module){
+        queue.add(module);
+    }
+
+    public static void clear(){
+        queue.clear();
+    }
+
+    public static void flush(){
+        if(flushing || queue.isEmpty()) return;
+        flushing = true;
+        try{
+            batch.clear();
+            for(var module : queue) batch.add(module);
+            queue.clear();
+
+            for(var module : batch){
+                if(!module.dead() && module.initialized()) link(module);
+            }
+            mergeSets();
+            for(var module : batch){
+                if(!module.dead()) module.finishNetworkUpdate();
+            }
+        }finally{
+            batch.clear();
+            graphs.clear();
+            graphIndex.clear();
+            sets.clear();
+            flushing = false;
+        }
+    }
+
+    static void link(GraphModule module){
+        if(module.graph.accept == null) return;
+        Building build = module.parent.build.asBuilding();
+        if(build.rotation != module.lastRecalc()) module.recalcPorts();
+
+        Seq<GraphData> ports = module.acceptPorts;
+        for(int p = 0, len = ports.size; p < len; p++){
+            GraphData port = ports.get(p);
+            BaseGraph net = module.getNetworkOfPort(port.index);
+            if(net == null) continue;
+
+            Tile tile = build.tile.nearby(port.toPos);
+            if(tile == null || !(tile.build instanceof GraphBuildBase other)) continue;
+
+            GraphModule con = other.getGraphConnector(module.type());
+            if(con == null || con == module || con.dead() || !con.initialized() || !net.canConnect(module, con)) continue;
+            if(con.parent.build.asBuilding().rotation != con.lastRecalc()) con.recalcPorts();
+
+            int connectIndex = con.canConnect(build.tileX() + port.fromPos.x, build.tileY() + port.fromPos.y);
+            if(connectIndex == -1) continue;
+            module.addNeighbour(con, port.index);
+            con.addNeighbour(module, connectIndex);
+
+            BaseGraph conNet = con.getNetworkOfPort(connectIndex);
+            if(conNet == null || conNet == net) continue;
+            if(conNet.connected.contains(con)) union(net, conNet);
+            else net.addBuilding(con, connectIndex);
+        }
+    }
+
+    static int indexOf(BaseGraph graph){
+        int i = graphIndex.get(graph, -1);
+        if(i != -1) return i;
+        i = graphs.size;
+        graphs.add(graph);
+        graphIndex.put(graph, i);
+        if(i >= parents.length){
+            int[] next = new int[parents.length * 2];
+            System.arraycopy(parents, 0, next, 0, parents.length);
+            parents = next;
+        }
+        parents[i] = i;
+        return i;
+    }
+
+    static int find(int i){
+        while(parents[i] != i){
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    static void union(BaseGraph a, BaseGraph b){
+        int ra = find(indexOf(a)), rb = find(indexOf(b));
+        if(ra != rb) parents[rb] = ra;
+    }
+
+    static void mergeSets(){
+        for(int i = 0; i < graphs.size; i++){
+            int root = find(i);
+            Seq<BaseGraph> set = sets.get(root);
+            if(set == null) sets.put(root, set = new Seq<>(4));
+            set.add(graphs.get(i));
+        }
+        for(var entry : sets){
+            Seq<BaseGraph> set = entry.value;
+            if(set.size < 2) continue;
+            BaseGraph survivor = set.first();
+            for(var graph : set){
+                if(graph.connected.size > survivor.connected.size) survivor = graph;
+            }
+            survivor.mergeGraphs(set);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package zzw.content.mechanics.torque.graph;
+
+import arc.struct.*;
+import mindustry.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Optional parallel solver for graphs.
+ * <p>
+ * When {@link #parallel} is set, {@link BaseGraph#update()} only records the graph here. On the next logic tick every
+ * recorded graph is solved at once: graphs reporting {@link BaseGraph#parallelSafe()} first get their
+ * {@link BaseGraph#prepareSolve()} on the logic thread, then run {@code updateDirect()/updateGraph()} on a fork-join
+ * pool, touching only their own buffers. Sleep decisions and every graph that is not parallel safe are then handled
+ * serially. Small batches and single-core devices always take the serial path.
+ */
+@SuppressWarnings("rawtypes")
+public class GraphScheduler{
+    /** Opt-in switch, read from the {@code torque-parallel-graphs} setting on load and updated when it is toggled in the game settings. */
+    public static boolean parallel;
+    /** Batches smaller than this are solved serially; splitting them costs more than it saves. */
+    public static int minParallelBatch = 16;
+    /** Graphs handed to a single worker task. */
+    public static int chunkSize = 8;
+
+    static final OrderedSet<BaseGraph> pending = new OrderedSet<>();
+    static final Seq<BaseGraph> batch = new Seq<>(false, 64, BaseGraph.class);
+    static final Seq<BaseGraph> serial = new Seq<>(false, 16, BaseGraph.class);
+    static ForkJoinPool pool;
+
+    /** Whether graph updates are currently deferred to the scheduler. */
+    public static boolean enabled(){
+        return parallel && cores() > 1;
+    }
+
+    static int cores(){
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static void submit(BaseGraph graph){
+        pending.add(graph);
+    }
+
+    public static void clear(){
+        pending.clear();
+        batch.clear();
+        serial.clear();
+    }
+
+    /** Solves every graph recorded since the last call. */
+    static void solve(){
+        if(pending.isEmpty() || Vars.state.isPaused()) return;
+        batch.clear();
+        serial.clear();
+        for(var graph : pending){
+            if(graph.connected.isEmpty()) continue;
+            if(graph.sleeping){
+                graph.updateSleeping();
+            }else if(graph.parallelSafe()){
+                graph.prepareSolve();
+                graph.woken = false;
+                batch.add(graph);
+            }else{
+                serial.add(graph);
+            }
+        }
+        pending.clear();
+
+        if(batch.size >= minParallelBatch && enabled()){
+            if(pool == null) pool = new ForkJoinPool(Math.max(1, cores() - 1));
+            pool.invoke(new SolveTask(batch.items, 0, batch.size));
+        }else{
+            for(int i = 0; i < batch.size; i++) solveOne(batch.items[i]);
+        }
+
+        for(int i = 0; i < batch.size; i++){
+            BaseGraph graph = batch.items[i];
+            if(!graph.woken && graph.isSettled()) graph.sleeping = true;
+        }
+        for(int i = 0; i < serial.size; i++) serial.items[i].step();
+        batch.clear();
+        serial.clear();
+    }
+
+    static void solveOne(BaseGraph graph){
+        graph.updateDirect();
+        graph.updateGraph();
+    }
+
+    static class SolveTask extends RecursiveAction{
+        final BaseGraph[] graphs;
+        final int from, to;
+
+        SolveTask(BaseGraph[] graphs, int from, int to){
+            this.graphs = graphs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from <= chunkSize){
+                for(int i = from; i < to; i++) solveOne(graphs[i]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveTask(graphs, from, mid), new SolveTask(graphs, mid, to));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package zzw.content.mechanics.torque.graph;
 
+import arc.math.Mathf;
+import arc.util.Time;
 import zzw.content.mechanics.torque.modules.GraphHeatModule;
 
 /**
@@ -7,11 +9,35 @@ import zzw.content.mechanics.torque.modules.GraphHeatModule;
  * <p>
  * 管理连接的热量模块之间的热量传递。
  * <p>
- * 每帧将各模块的 {@code heatBuffer} (来自邻居传导和环境辐射) 加到 {@code heat} 上,
- * 并累计 {@code lastHeatFlow} 用于统计。
+ * 网络拓扑变化后, 各模块的热量/热容/传导率/辐射率被打包进连续的 float 数组,
+ * 邻接关系打包为 CSR 索引 ({@code adjStart}/{@code adj})。
+ * 网络以固定步长 {@link #stepTicks} 推进 (与帧率解耦), 每步在数组上依次完成传导、
+ * 辐射散热和累加, 并累计 {@code lastHeatFlow} 用于统计。
+ * <p>
+ * 一步内所有方块的温度变化都小于 {@link #sleepEpsilon} 时网络进入休眠 ({@link BaseGraph#sleeping()}), 不再计算;
+ * 有热量注入 (热源方块)、热量被外部修改或拓扑变化时唤醒。
+ * <p>
+ * 打包期间模块的热量以本网络数组为准, 仅在重新打包时写回模块
+ * (读取请用 {@link GraphHeatModule#getHeat()})。
  */
 public class HeatGraph extends BaseGraph<GraphHeatModule, HeatGraph>{
-    float lastHeatFlow;
+    /** 环境温度 (K) */
+    public static final float ambientTemp = 293.15f;
+    /** 固定步长 (tick) */
+    public static float stepTicks = 1f;
+    /** 每帧最多补算的步数, 避免卡顿后雪崩 */
+    public static int maxStepsPerFrame = 4;
+    /** 休眠阈值: 一步内最大温度变化 (K) */
+    public static float sleepEpsilon = 0.0001f;
+
+    float lastHeatFlow, stepAccum;
+    boolean settled;
+
+    GraphHeatModule[] packed = new GraphHeatModule[0];
+    float[] heat = {}, capacity = {}, conductivity = {}, radiativity = {}, temp = {}, buffer = {};
+    int[] adjStart = {0}, adj = {};
+    int packedSize;
+    boolean packDirty = true;
 
     @Override
     public HeatGraph create(){
@@ -22,15 +48,146 @@ public class HeatGraph extends BaseGraph<GraphHeatModule, HeatGraph>{
     void copyGraphStatsFrom(HeatGraph graph){}
 
     @Override
-    void updateOnGraphChanged(){}
+    void updateOnGraphChanged(){
+        packDirty = true;
+    }
+
+    /** 把当前连接的模块重新打包为 SoA 数组和 CSR 邻接表 */
+    void pack(){
+        unpack();
+        int n = connected.size;
+        if(packed.length < n){
+            int cap = Math.max(8, n + n / 2);
+            packed = new GraphHeatModule[cap];
+            heat = new float[cap];
+            capacity = new float[cap];
+            conductivity = new float[cap];
+            radiativity = new float[cap];
+            temp = new float[cap];
+            buffer = new float[cap];
+            adjStart = new int[cap + 1];
+        }
+
+        int i = 0, edges = 0;
+        for(var module : connected){
+            packed[i] = module;
+            heat[i] = module.getHeat();
+            capacity[i] = module.graph.baseHeatCapacity;
+            conductivity[i] = module.graph.baseHeatConductivity;
+            radiativity[i] = module.graph.baseHeatRadiativity;
+            edges += module.countNeighbours();
+            i++;
+        }
+        for(int j = 0; j < n; j++) packed[j].bindSolver(this, j);
+
+        if(adj.length < edges) adj = new int[edges];
+        int e = 0;
+        for(int j = 0; j < n; j++){
+            GraphHeatModule module = packed[j];
+            adjStart[j] = e;
+            for(int k = 0, len = module.countNeighbours(); k < len; k++){
+                GraphHeatModule other = module.neighbourAt(k);
+                if(other.solver() == this) adj[e++] = other.solverSlot();
+            }
+        }
+        adjStart[n] = e;
+        packedSize = n;
+        packDirty = false;
+    }
+
+    /** 把数组中的热量写回模块并解除绑定 */
+    void unpack(){
+        for(int i = 0; i < packedSize; i++){
+            packed[i].unbindSolver(this, heat[i]);
+            packed[i] = null;
+        }
+        packedSize = 0;
+    }
+
+    public float heatAt(int slot){
+        return heat[slot];
+    }
+
+    public void setHeatAt(int slot, float value){
+        if(heat[slot] == value) return;
+        heat[slot] = value;
+        wake();
+    }
 
     @Override
-    void updateGraph(){
+    boolean isSettled(){
+        return settled;
+    }
+
+    @Override
+    void updateSleeping(){
         lastHeatFlow = 0f;
-        connected.each(module -> {
-            module.heat += module.heatBuffer;
-            lastHeatFlow += module.heatBuffer;
-        });
+    }
+
+    @Override
+    void updateGraph(){
+        if(packDirty) pack();
+
+        float flow = 0f;
+        int steps = 0;
+        settled = false;
+        stepAccum += Time.delta;
+        while(stepAccum >= stepTicks && !settled){
+            if(steps++ >= maxStepsPerFrame){
+                stepAccum = 0f;
+                break;
+            }
+            stepAccum -= stepTicks;
+            flow += step(stepTicks);
+        }
+        lastHeatFlow = flow;
+    }
+
+    /** 推进一步, 返回本步总热量变化; 网络稳定时置为休眠 */
+    float step(float delta){
+        int n = packedSize;
+
+        for(int i = 0; i < n; i++){
+            temp[i] = heat[i] / capacity[i];
+            buffer[i] = 0f;
+        }
+
+        for(int i = 0; i < n; i++){
+            int start = adjStart[i], end = adjStart[i + 1];
+            if(start == end) continue;
+            float t = temp[i], cond = conductivity[i];
+            float sum = 0f;
+            for(int e = start; e < end; e++) sum += temp[adj[e]] - t;
+            buffer[i] = sum * cond * Mathf.clamp(delta, 0f, 1f / cond);
+        }
+
+        //环境辐射散热, 整个网络一次遍历
+        for(int i = 0; i < n; i++){
+            buffer[i] += (ambientTemp - temp[i]) * radiativity[i] * Mathf.clamp(delta, 0f, 1f / conductivity[i]);
+        }
+
+        float flow = 0f, maxChange = 0f;
+        for(int i = 0; i < n; i++){
+            float b = buffer[i];
+            heat[i] += b;
+            flow += b;
+            maxChange = Math.max(maxChange, Math.abs(b) / capacity[i]);
+        }
+        if(maxChange < sleepEpsilon){
+            settled = true;
+            stepAccum = 0f;
+        }
+        return flow;
+    }
+
+    @Override
+    boolean parallelSafe(){
+        return true;
+    }
+
+    @Override
+    void prepareSolve(){
+        if(packDirty) pack();
     }
 
     @Override
@@ -43,4 +200,7 @@ public class HeatGraph extends BaseGraph<GraphHeatModule, HeatGraph>{
     void mergeStats(HeatGraph graph){
         lastHeatFlow += graph.lastHeatFlow;
     }
+
+    @Override
+    void splitStats(HeatGraph graph){}
 }
@@ -7,6 +7,14 @@ import zzw.content.mechanics.torque.modules.*;
 //rotGraph
 public class TorqueGraph<T extends GraphTorque> extends BaseGraph<GraphTorqueModule<T>, TorqueGraph<T>>{
     public float lastInertia, lastGrossForceApplied, lastNetForceApplied, lastVelocity, lastFrictionCoefficient;
+    /** Accumulated shaft angle of this network; modules store their rotation as an offset from it. */
+    public float rotation;
+
+    //packed module inputs, rebuilt after topology changes and kept current by GraphTorqueModule.syncSolver()
+    GraphTorqueModule<T>[] packed = new GraphTorqueModule[0];
+    float[] forces = {}, frictions = {}, inertias = {};
+    int packedSize;
+    boolean packDirty = true, settled;
 
     @Override
     public TorqueGraph<T> create(){
@@ -24,26 +32,96 @@ public class TorqueGraph<T extends GraphTorque> extends BaseGraph<GraphTorqueMod
     }
 
     @Override
-    void updateOnGraphChanged(){}
+    void updateOnGraphChanged(){
+        packDirty = true;
+    }
+
+    void pack(){
+        int n = connected.size;
+        if(packed.length < n){
+            int cap = Math.max(8, n + n / 2);
+            packed = new GraphTorqueModule[cap];
+            forces = new float[cap];
+            frictions = new float[cap];
+            inertias = new float[cap];
+        }
+        int i = 0;
+        for(var module : connected){
+            packed[i] = module;
+            forces[i] = module.force();
+            frictions[i] = module.friction();
+            inertias[i] = module.inertia();
+            module.bindSolver(this, i);
+            i++;
+        }
+        for(int j = n; j < packedSize; j++) packed[j] = null;
+        packedSize = n;
+        packDirty = false;
+    }
+
+    /** Copies the current inputs of {@code module} into its packed slot, if it still owns that slot. */
+    public void syncInputs(GraphTorqueModule<T> module, int slot){
+        if(packDirty || slot < 0 || slot >= packedSize || packed[slot] != module){
+            wake();
+            return;
+        }
+        float force = module.force(), friction = module.friction(), inertia = module.inertia();
+        if(forces[slot] == force && frictions[slot] == friction && inertias[slot] == inertia) return;
+        forces[slot] = force;
+        frictions[slot] = friction;
+        inertias[slot] = inertia;
+        wake();
+    }
 
     @Override
     void updateGraph(){
+        float prevVelocity = lastVelocity;
         float netForce = lastGrossForceApplied - lastFrictionCoefficient;
         lastNetForceApplied = netForce;
         float acceleration = lastInertia == 0f ? 0f : netForce / lastInertia;
         lastVelocity += acceleration * Time.delta;
         lastVelocity = Math.max(0f, lastVelocity);
+        rotation = (rotation + lastVelocity) % (360f * 24f);
+        settled = lastVelocity == prevVelocity;
+    }
+
+    @Override
+    boolean isSettled(){
+        return settled;
+    }
+
+    @Override
+    void updateSleeping(){
+        rotation = (rotation + lastVelocity) % (360f * 24f);
+    }
+
+    /** Sets the network velocity from outside the solver (transmissions, save state), waking it if it changed. */
+    public void setVelocity(float velocity){
+        if(velocity == lastVelocity) return;
+        lastVelocity = velocity;
+        wake();
+    }
+
+    @Override
+    boolean parallelSafe(){
+        return true;
+    }
+
+    @Override
+    void prepareSolve(){
+        if(packDirty) pack();
     }
 
     @Override
     void updateDirect(){
+        if(packDirty) pack();
         float forceApply = 0f;
         float fricCoeff = 0f;
         float iner = 0f;
-        for(var module : connected){//building, GraphTorqueModule
-            forceApply += module.force;
-            fricCoeff += module.friction();
-            iner += module.inertia;
+        for(int i = 0, n = packedSize; i < n; i++){
+            forceApply += forces[i];
+            fricCoeff += frictions[i];
+            iner += inertias[i];
         }
         lastFrictionCoefficient = fricCoeff;
         lastGrossForceApplied = forceApply;
@@ -58,10 +136,15 @@ public class TorqueGraph<T extends GraphTorque> extends BaseGraph<GraphTorqueMod
         float momentumA = lastVelocity * lastInertia;
         float mementumB = graph.lastVelocity * graph.lastInertia;
         lastVelocity = (momentumA + mementumB) / (lastInertia + graph.lastInertia);
+        lastInertia += graph.lastInertia;
     }
 
+    @Override
+    void splitStats(TorqueGraph<T> graph){}
+
     public void injectInertia(float iner){
         float inerSum = lastInertia + iner;
         lastVelocity *= inerSum == 0f ? 0f : lastInertia / inerSum;
+        wake();
     }
 }
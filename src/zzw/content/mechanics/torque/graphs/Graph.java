@@ -8,11 +8,26 @@ public abstract class Graph{
     public boolean isMultiConnector;
     public int[] accept;
 
+    private PortTable[] portTables = new PortTable[4];
+    private int portTableSize = -1;
+
     public Graph setAccept(int... newAccept){
         accept = newAccept;
+        portTables = new PortTable[4];
         return this;
     }
 
+    /** Port geometry for a block of {@code size} at {@code rotation}, built on first use and shared by all modules. */
+    public PortTable ports(int size, int rotation){
+        if(portTableSize != size){
+            portTables = new PortTable[4];
+            portTableSize = size;
+        }
+        PortTable table = portTables[rotation];
+        if(table == null) portTables[rotation] = table = new PortTable(accept, size, rotation);
+        return table;
+    }
+
     public Graph multi(){
         isMultiConnector = canBeMulti();
         return this;
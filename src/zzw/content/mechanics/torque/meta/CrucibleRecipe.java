@@ -18,12 +18,24 @@ public class CrucibleRecipe{
     public final InputRecipe[] input;
     /** 合金速度 */
     public final float alloySpeed;
+    /** 各输入原料的 MeltInfo id (与 input 一一对应) */
+    public final int[] inputIds;
+    /** 输入原料位掩码: 第 id 位表示需要该原料, 用于快速过滤 */
+    public final long inputMask;
 
     public CrucibleRecipe(MeltInfo melt, float alloySpeed, InputRecipe... input){
         this.melt = melt;
         this.alloySpeed = alloySpeed;
         this.input = input;
 
+        inputIds = new int[input.length];
+        long mask = 0L;
+        for(int i = 0; i < input.length; i++){
+            inputIds[i] = input[i].material.id;
+            mask |= 1L << inputIds[i];
+        }
+        inputMask = mask;
+
         all[total++] = this;
     }
 
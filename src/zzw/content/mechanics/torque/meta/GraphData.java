@@ -1,11 +1,15 @@
 package zzw.content.mechanics.torque.meta;
 
 import arc.math.geom.*;
+import arc.struct.*;
 
 import static arc.math.geom.Geometry.*;
 
 //오로지 getConnectSidePos 만을 위해서 존재
 public class GraphData{
+    //size * 4 + rotation -> port geometry by index; shared, so fromPos/toPos must not be mutated
+    private static final IntMap<GraphData[]> cache = new IntMap<>();
+
     public final Point2 fromPos, toPos;
     public final int dir, index;
 
@@ -17,6 +21,15 @@ public class GraphData{
     }
 
     public static GraphData getConnectSidePos(int index, int size, int rotation){
+        int key = size * 4 + rotation;
+        GraphData[] sides = cache.get(key);
+        if(sides == null) cache.put(key, sides = new GraphData[size * 4]);
+        if(index >= sides.length) return compute(index, size, rotation);
+        if(sides[index] == null) sides[index] = compute(index, size, rotation);
+        return sides[index];
+    }
+
+    static GraphData compute(int index, int size, int rotation){
         int side = index / size;
         side = (side + rotation) % 4;
         Point2 normal = d4((side + 3) % 4);
@@ -0,0 +1,61 @@
+package zzw.content.mechanics.torque.meta;
+
+import arc.struct.*;
+
+import java.util.*;
+
+/**
+ * Port geometry of one graph type at one block size and rotation, built once and shared by every module of that type.
+ * <p>
+ * Holds the accepted ports in index order, the ports of each network slot for multi connectors, and a dense lookup
+ * from a tile offset relative to the block origin to the index of the port facing it.
+ */
+public class PortTable{
+    /** Accepted ports in index order. */
+    public final Seq<GraphData> ports = new Seq<>();
+    /** Accepted ports grouped by network slot ({@code accept[index] - 1}). */
+    public final Seq<GraphData>[] slots;
+
+    final int[] lookup;
+    final int minX, minY, width, height;
+
+    public PortTable(int[] accept, int size, int rotation){
+        int slotCount = 1;
+        for(int a : accept) slotCount = Math.max(slotCount, a);
+        slots = new Seq[slotCount];
+        for(int i = 0; i < slotCount; i++) slots[i] = new Seq<>();
+
+        int x1 = Integer.MAX_VALUE, y1 = Integer.MAX_VALUE, x2 = Integer.MIN_VALUE, y2 = Integer.MIN_VALUE;
+        for(int i = 0; i < accept.length; i++){
+            if(accept[i] == 0) continue;
+            GraphData port = GraphData.getConnectSidePos(i, size, rotation);
+            ports.add(port);
+            slots[accept[i] - 1].add(port);
+            x1 = Math.min(x1, port.toPos.x);
+            y1 = Math.min(y1, port.toPos.y);
+            x2 = Math.max(x2, port.toPos.x);
+            y2 = Math.max(y2, port.toPos.y);
+        }
+
+        if(ports.isEmpty()){
+            minX = minY = width = height = 0;
+            lookup = new int[0];
+            return;
+        }
+        minX = x1;
+        minY = y1;
+        width = x2 - x1 + 1;
+        height = y2 - y1 + 1;
+        lookup = new int[width * height];
+        Arrays.fill(lookup, -1);
+        for(var port : ports) lookup[(port.toPos.y - minY) * width + port.toPos.x - minX] = port.index;
+    }
+
+    /** Index of the port whose outer tile is at offset ({@code dx}, {@code dy}) from the block origin, or -1. */
+    public int portAt(int dx, int dy){
+        dx -= minX;
+        dy -= minY;
+        if(dx < 0 || dy < 0 || dx >= width || dy >= height) return -1;
+        return lookup[dy * width + dx];
+    }
+}
@@ -43,29 +43,30 @@ public class GraphCrucibleModule extends GraphModule<GraphCrucible, GraphCrucibl
     boolean melter = true, containChanged = true;
 
     public boolean addItem(Item item){
-        return networks.get(0).addItem(item);
+        networks[0].wake();
+        return networks[0].addItem(item);
     }
 
     public Seq<CrucibleData> getContained(){
-        CrucibleGraph net = networks.get(0);
+        CrucibleGraph net = networks[0];
         if(net != null) return net.contains();
         return contains;
     }
 
     public float getVolumeContained(){
-        CrucibleGraph net = networks.get(0);
+        CrucibleGraph net = networks[0];
         if(net != null) return net.getVolumeContained();
         else return 0f;
     }
 
     public boolean canContainMore(float amount){
-        CrucibleGraph net = networks.get(0);
+        CrucibleGraph net = networks[0];
         if(net != null) return net.canContainMore(amount);
         else return false;
     }
 
     public float getTotalLiquidCapacity(){
-        CrucibleGraph net = networks.get(0);
+        CrucibleGraph net = networks[0];
         if(net != null) return net.totalCapacity();
         return 0f;
     }
@@ -113,7 +114,7 @@ public class GraphCrucibleModule extends GraphModule<GraphCrucible, GraphCrucibl
         return new IconBar(96f, () -> {
             float temp = 0f;
             Seq<CrucibleData> cc = getContained();
-            CrucibleGraph net = networks.get(0);
+            CrucibleGraph net = networks[0];
 
             if(net != null) temp = net.getAverageTemp();
 
@@ -157,9 +158,7 @@ public class GraphCrucibleModule extends GraphModule<GraphCrucible, GraphCrucibl
         Seq<CrucibleData> cc = graph.contains();
 
         if(cc.size == len) return;
-        cc.clear();
-
-        for(var i : cache) cc.add(i);
+        graph.setContents(cache);
     }
 
     @Override
@@ -185,7 +184,7 @@ public class GraphCrucibleModule extends GraphModule<GraphCrucible, GraphCrucibl
 
     @Override
     void displayBars(Table table){
-        CrucibleGraph net = networks.get(0);
+        CrucibleGraph net = networks[0];
         if(net == null) return;
         table.add(new Bar(
             () -> bundle.get("stat.unity.liquidtotal", "Liquid Total") + ": " + Strings.fixed(net.getVolumeContained(), 1) + "/" + Strings.fixed(net.totalCapacity(), 1)
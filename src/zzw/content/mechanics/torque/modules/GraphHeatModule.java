@@ -2,10 +2,8 @@ package zzw.content.mechanics.torque.modules;
 
 import arc.Core;
 import arc.graphics.Color;
-import arc.math.Mathf;
 import arc.scene.ui.layout.Table;
 import arc.util.Strings;
-import arc.util.Time;
 import arc.util.io.Reads;
 import arc.util.io.Writes;
 import zzw.content.mechanics.torque.graph.HeatGraph;
@@ -15,15 +13,18 @@ import zzw.content.mechanics.torque.meta.GraphType;
 /**
  * 热量模块 (PU132 unity.world.modules.GraphHeatModule 移植)
  * <p>
- * 每个方块的热量组件, 记录当前热量 {@code heat} 和缓冲 {@code heatBuffer}。
+ * 每个方块的热量组件, 记录当前热量 {@code heat}。
  * <p>
  * 温度计算: {@code temp = heat / baseHeatCapacity}
  * <p>
- * 热量传递: 每帧从邻居和环境吸收/释放热量到 {@code heatBuffer},
- * 由 {@link HeatGraph#updateGraph()} 统一加到 {@code heat} 上。
+ * 热量传递: 由 {@link HeatGraph#updateGraph()} 在网络的打包数组上统一计算。
+ * 模块被网络打包期间, 热量存放在网络数组中 ({@code solver}/{@code solverSlot}),
+ * {@code heat} 只在解除绑定时写回; 外部请通过 {@link #getHeat()}/{@link #addHeat(float)} 访问。
  */
 public class GraphHeatModule extends GraphModule<GraphHeat, GraphHeatModule, HeatGraph>{
-    public float heat, heatBuffer;
+    float heat;
+    HeatGraph solver;
+    int solverSlot;
 
     @Override
     void applySaveState(HeatGraph graph, int index){}
@@ -32,21 +33,14 @@ public class GraphHeatModule extends GraphModule<GraphHeat, GraphHeatModule, Hea
     void updateExtension(){}
 
     @Override
-    void updateProps(HeatGraph graph, int index){
-        float temp = getTemp();
-        float cond = this.graph.baseHeatConductivity;
-        heatBuffer = 0f;
-        float clampedDelta = Mathf.clamp(Time.delta, 0, 1f / cond);
-        for(var n : neighbours.keys()) heatBuffer += (n.getTemp() - temp) * cond * clampedDelta;
-        heatBuffer += (293.15f - temp) * this.graph.baseHeatRadiativity * clampedDelta;
-    }
+    void updateProps(HeatGraph graph, int index){}
 
     @Override
     void proximityUpdateCustom(){}
 
     @Override
     void display(Table table){
-        if(networks.get(0) == null) return;
+        if(networks[0] == null) return;
         String ps = Core.bundle.get("stat.unity.tempunit", "°C");
         table.row();
         table.table(sub -> {
@@ -71,13 +65,12 @@ public class GraphHeatModule extends GraphModule<GraphHeat, GraphHeatModule, Hea
 
     @Override
     void writeGlobal(Writes write){
-        write.f(heat);
+        write.f(getHeat());
     }
 
     @Override
     void readGlobal(Reads reads, byte revision){
-        heat = reads.f();
-        heatBuffer = 0f;
+        setHeat(reads.f());
     }
 
     @Override
@@ -93,15 +86,53 @@ public class GraphHeatModule extends GraphModule<GraphHeat, GraphHeatModule, Hea
         return GraphType.heat;
     }
 
+    /** 获取当前热量 */
+    public float getHeat(){
+        return solver != null ? solver.heatAt(solverSlot) : heat;
+    }
+
+    /** 设置当前热量 */
+    public void setHeat(float value){
+        if(solver != null) solver.setHeatAt(solverSlot, value);
+        else heat = value;
+    }
+
+    /** 注入 (或取出) 热量 */
+    public void addHeat(float amount){
+        if(amount == 0f) return;
+        setHeat(getHeat() + amount);
+    }
+
+    /** 由 {@link HeatGraph} 打包时调用, 之后热量以网络数组为准 */
+    public void bindSolver(HeatGraph graph, int slot){
+        solver = graph;
+        solverSlot = slot;
+    }
+
+    /** 由 {@link HeatGraph} 重新打包时调用, 把热量写回模块 */
+    public void unbindSolver(HeatGraph graph, float value){
+        if(solver != graph) return;
+        solver = null;
+        heat = value;
+    }
+
+    public HeatGraph solver(){
+        return solver;
+    }
+
+    public int solverSlot(){
+        return solverSlot;
+    }
+
     /** 获取当前温度 (K) */
     @Override
     public float getTemp(){
-        return heat / graph.baseHeatCapacity;
+        return getHeat() / graph.baseHeatCapacity;
     }
 
     /** 设置温度 (K) */
     @Override
     void setTemp(float t){
-        heat = t * graph.baseHeatCapacity;
+        setHeat(t * graph.baseHeatCapacity);
     }
 }
@@ -4,7 +4,6 @@ import arc.func.*;
 import arc.math.geom.*;
 import arc.scene.ui.layout.*;
 import arc.struct.*;
-import arc.struct.ObjectMap.*;
 import arc.util.io.*;
 import mindustry.gen.*;
 import mindustry.graphics.*;
@@ -13,16 +12,24 @@ import zzw.content.mechanics.torque.graph.*;
 import zzw.content.mechanics.torque.graphs.*;
 import zzw.content.mechanics.torque.meta.*;
 
+import java.util.*;
+
 public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G>, G extends BaseGraph<M, G>>{
     public final Seq<GraphData> acceptPorts = new Seq<>();
+    /** Shared port geometry for the current rotation; see {@link Graph#ports(int, int)}. */
+    PortTable ports;
 
     public GraphModules parent;
     public T graph;
-    public int d;
 
-    protected final IntMap<G> networks = new IntMap<>(4);
+    /** Networks by slot: slot 0 for single connectors, {@code accept[port] - 1} for multi connectors. */
+    protected G[] networks = (G[])new BaseGraph[1];
 
-    final OrderedMap<M, Integer> neighbours = new OrderedMap<>();
+    /** Distinct neighbours in connection order, packed into {@code [0, neighbourCount)}. */
+    M[] neighbours = (M[])new GraphModule[0];
+    /** Own port index each neighbour in {@link #neighbours} is connected through. */
+    int[] neighbourPorts = new int[0];
+    int neighbourCount;
     final Seq saveCache = new Seq(4);
 
     int lastRecalc;
@@ -35,9 +42,13 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     public int canConnect(Point2 pos){
-        GraphData temp = acceptPorts.find(d -> pos.equals(d.toPos.x + parent.build.tileX(), d.toPos.y + parent.build.tileY()));
-        if(temp != null) return temp.index;
-        return -1;
+        return canConnect(pos.x, pos.y);
+    }
+
+    /** Index of the port facing world tile ({@code x}, {@code y}), or -1 if none does. */
+    public int canConnect(int x, int y){
+        if(ports == null) return -1;
+        return ports.portAt(x - parent.build.tileX(), y - parent.build.tileY());
     }
 
     /*public boolean canConnect(M module){TODO
@@ -59,23 +70,26 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }*/
 
     void onCreate(GraphBuildBase build){
-        acceptPorts.setSize(graph.accept.length);
-        neighbours.shrink(graph.accept.length);
+        int len = graph.accept.length;
+        acceptPorts.setSize(len);
+        neighbours = (M[])new GraphModule[len];
+        neighbourPorts = new int[len];
+        neighbourCount = 0;
+        networks = (G[])new BaseGraph[networkSlots()];
         //blockSize = graph.accept.length / 4;
         initAllNets();
-        needsNetworkUpdate = true;
         lastRecalc = -1;
         initStats();
         initialized = true;
+        requestNetworkUpdate();
     }
 
     public void recalcPorts(){
-        if(lastRecalc == parent.build.asBuilding().rotation) return;
-        acceptPorts.clear();
-        for(int i = 0, len = graph.accept.length; i < len; i++){
-            if(graph.accept[i] != 0) acceptPorts.add(getConnectSidePos(i));
-        }
-        lastRecalc = parent.build.asBuilding().rotation;
+        int rotation = parent.build.asBuilding().rotation;
+        if(lastRecalc == rotation) return;
+        ports = graph.ports(parent.build.asBuilding().block.size, rotation);
+        acceptPorts.set(ports.ports);
+        lastRecalc = rotation;
     }
 
     public void onRemoved(){
@@ -84,19 +98,27 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     void deleteFromNeighbours(){
-        for(var n : neighbours.keys()) n.removeNeighbour((M)this);
+        for(int i = neighbourCount - 1; i >= 0; i--) neighbours[i].removeNeighbour((M)this);
+    }
+
+    int networkSlots(){
+        if(!multi) return 1;
+        int slots = 1;
+        for(int a : graph.accept) slots = Math.max(slots, a);
+        return slots;
     }
 
     void deleteSelfFromNetwork(){
         dead = true;
         if(multi) deleteSelfFromNetworkMulti();
-        else if(networks.get(0) != null) networks.get(0).remove((M)this);
+        else if(networks[0] != null) networks[0].remove((M)this);
     }
 
     //multi
     void deleteSelfFromNetworkMulti(){
-        if(networks.isEmpty()) return;
-        for(var i : networks.values()) i.remove((M)this);
+        for(var net : networks){
+            if(net != null) net.remove((M)this);
+        }
     }
 
     void onUpdate(){
@@ -106,57 +128,67 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     void onRotationChanged(int prevRot, int newRot){
+        wakeNetworks();
         if(prevRot != -1){
             deleteSelfFromNetwork();
             deleteFromNeighbours();
             dead = false;
             initAllNets();
-            neighbours.clear();
+            clearNeighbours();
         }
         recalcPorts();
+        requestNetworkUpdate();
+        wakeNetworks();
+    }
+
+    /** Queues this module so its connections are rediscovered in the next {@link GraphRebuildQueue} batch. */
+    public void requestNetworkUpdate(){
         needsNetworkUpdate = true;
+        GraphRebuildQueue.add(this);
+    }
+
+    /** Called by {@link GraphRebuildQueue} once this module's graphs have been rebuilt. */
+    public void finishNetworkUpdate(){
+        needsNetworkUpdate = false;
+        if(networkSaveState){
+            for(int i = 0; i < networks.length; i++){
+                if(networks[i] != null) applySaveState(networks[i], i);
+            }
+            networkSaveState = false;
+        }
+        if(!multi) parent.build.onGraphUpdate();
+    }
+
+    /** Wakes every network this module belongs to; see {@link BaseGraph#wake()}. */
+    public void wakeNetworks(){
+        for(var net : networks){
+            if(net != null) net.wake();
+        }
     }
 
     void updateNetworks(){
+        if(needsNetworkUpdate){
+            GraphRebuildQueue.add(this);
+            GraphRebuildQueue.flush();
+        }
         if(multi){
             updateNetworksMulti();
             return;
         }
-        if(networks.get(0) != null){
-            if(needsNetworkUpdate){
-                needsNetworkUpdate = false;
-                networks.get(0).rebuildGraph((M)this);
-                if(networkSaveState){
-                    applySaveState(networks.get(0), 0);
-                    networkSaveState = false;
-                }
-                parent.build.onGraphUpdate();
-            }
-            networks.get(0).update();
-            updateProps(networks.get(0), 0);
+        G net = networks[0];
+        if(net != null){
+            net.update();
+            updateProps(net, 0);
         }
     }
 
     //multi
     void updateNetworksMulti(){
-        if(networks.isEmpty()) return;
-        if(needsNetworkUpdate){
-            boolean[] covered = new boolean[4];
-            int[] portArray = graph.accept;
-            for(int i = 0, len = portArray.length; i < len; i++){
-                int j = portArray[i] - 1;
-                if(portArray[i] == 0 || covered[j]) continue;
-                getNetworkOfPort(j).rebuildGraphIndex((M)this, i);
-                covered[j] = true;
-            }
-            if(networkSaveState){
-                for(var i : networks) applySaveState(i.value, i.key);
-            }
-            networkSaveState = false;
-        }
-        for(var i : networks){
-            i.value.update();
-            updateProps(i.value, i.key);
+        for(int i = 0; i < networks.length; i++){
+            G net = networks[i];
+            if(net == null) continue;
+            net.update();
+            updateProps(net, i);
         }
         needsNetworkUpdate = false;
     }
@@ -176,7 +208,7 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     abstract void displayBars(Table table);
 
     void drawSelect(){
-        G net = networks.get(0);
+        G net = networks[0];
         if(net != null) net.connected.each(module -> Drawf.selected(module.parent.build.<Building>self(), Pal.accent));
     }
 
@@ -188,7 +220,7 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
         if(multi) initAllNetsMulti();
         else{
             G net = newNetwork();
-            networks.put(0, net);
+            networks[0] = net;
             net.init((M)this);
         }
     }
@@ -196,11 +228,15 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     //multi
     void initAllNetsMulti(){
         int[] portArray = graph.accept;
-        networks.clear();
+        int slots = networkSlots();
+        if(networks.length != slots) networks = (G[])new BaseGraph[slots];
+        boolean[] created = new boolean[slots];
         for(int i = 0, len = portArray.length; i < len; i++){
-            if(portArray[i] != 0 && !networks.containsKey(portArray[i] - 1)){
+            int slot = portArray[i] - 1;
+            if(slot >= 0 && !created[slot]){
                 G net = newNetwork();
-                networks.put(portArray[i] - 1, net);
+                networks[slot] = net;
+                created[slot] = true;
                 net.init((M)this);
             }
         }
@@ -215,19 +251,32 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     public M getNeighbour(M module/*building*/){
-        return neighbours.containsKey(module) ? module : null;
+        return indexOfNeighbour(module) != -1 ? module : null;
+    }
+
+    int indexOfNeighbour(M module){
+        for(int i = 0; i < neighbourCount; i++){
+            if(neighbours[i] == module) return i;
+        }
+        return -1;
+    }
+
+    /** Neighbour at packed index {@code i}, {@code 0 <= i < countNeighbours()}. */
+    public M neighbourAt(int i){
+        return neighbours[i];
     }
 
-    public void eachNeighbour(Cons<Entry<M, Integer>> func){
-        for(var n : neighbours) func.get(n);
+    /** Own port index the neighbour at packed index {@code i} is connected through. */
+    public int neighbourPortAt(int i){
+        return neighbourPorts[i];
     }
 
     public void eachNeighbourKey(Cons<M> func){
-        for(var n : neighbours.keys()) func.get(n);
+        for(int i = 0; i < neighbourCount; i++) func.get(neighbours[i]);
     }
 
-    public void eachNeighbourValue(Cons<Integer> func){
-        for(var n : neighbours.values()) func.get(n);
+    public void eachNeighbourValue(Intc func){
+        for(int i = 0; i < neighbourCount; i++) func.get(neighbourPorts[i]);
     }
 
     float efficiency(){
@@ -235,18 +284,47 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     public int countNeighbours(){
-        return neighbours.size;
+        return neighbourCount;
     }
 
     public void removeNeighbour(M module/*building*/){
-        if(module != null && neighbours.remove(module) != null) parent.build.onNeighboursChanged();
+        if(module == null) return;
+        int i = indexOfNeighbour(module);
+        if(i == -1) return;
+        int tail = neighbourCount - i - 1;
+        if(tail > 0){
+            System.arraycopy(neighbours, i + 1, neighbours, i, tail);
+            System.arraycopy(neighbourPorts, i + 1, neighbourPorts, i, tail);
+        }
+        neighbours[--neighbourCount] = null;
+        wakeNetworks();
+        parent.build.onNeighboursChanged();
     }
 
     public void addNeighbour(M n, int portIndex){
-        if(n != null){
-            Integer v = neighbours.put(n, portIndex);
-            if(v == null || v == portIndex) parent.build.onNeighboursChanged();
+        if(n == null) return;
+        int i = indexOfNeighbour(n);
+        if(i != -1){
+            int prev = neighbourPorts[i];
+            neighbourPorts[i] = portIndex;
+            if(prev != portIndex) wakeNetworks();
+            else parent.build.onNeighboursChanged();
+            return;
+        }
+        if(neighbourCount == neighbours.length){
+            int cap = Math.max(4, neighbourCount * 2);
+            neighbours = Arrays.copyOf(neighbours, cap);
+            neighbourPorts = Arrays.copyOf(neighbourPorts, cap);
         }
+        neighbours[neighbourCount] = n;
+        neighbourPorts[neighbourCount++] = portIndex;
+        wakeNetworks();
+        parent.build.onNeighboursChanged();
+    }
+
+    void clearNeighbours(){
+        Arrays.fill(neighbours, 0, neighbourCount, null);
+        neighbourCount = 0;
     }
 
     public Seq<GraphData> getConnectedNeighbours(int index){
@@ -254,24 +332,20 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
         return acceptPorts;
     }
 
-    //multi
+    //multi; the returned Seq is shared and must not be modified
     Seq<GraphData> getConnectedNeighboursMulti(int index){
-        int[] portArray = graph.accept;
-        int targetPort = portArray[index];
-        Seq<GraphData> output = new Seq<>();
-        for(var i : acceptPorts){
-            if(portArray[i.index] == targetPort) output.add(i);
-        }
-        return output;
+        int slot = graph.accept[index] - 1;
+        if(slot < 0 || ports == null) return Seq.with();
+        return ports.slots[slot];
     }
 
     public G getNetwork(){
-        return networks.get(0);
+        return networks[0];
     }
 
     public boolean hasNetwork(G net){
         if(multi) return hasNetworkMulti(net);
-        return networks.get(0).id == net.id;
+        return networks[0] == net;
     }
 
     //multi
@@ -281,51 +355,54 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
 
     public int getPortOfNetwork(G net){
         if(multi) return getPortOfNetworkMulti(net);
-        return networks.get(0).id == net.id ? 0 : -1;
+        return networks[0] == net ? 0 : -1;
     }
 
     //multi
     int getPortOfNetworkMulti(G net){
         if(net == null) return -1;
-        return networks.findKey(net, true, -1);
+        for(int i = 0; i < networks.length; i++){
+            if(networks[i] == net) return i;
+        }
+        return -1;
     }
 
     public boolean replaceNetwork(G old, G set){
         if(multi) return replaceNetworkMulti(old, set);
-        networks.put(0, set);
+        networks[0] = set;
         return true;
     }
 
     //multi
     boolean replaceNetworkMulti(G old, G set){
-        int index = networks.findKey(old, true, -1);
+        int index = getPortOfNetworkMulti(old);
         if(index == -1) return false;
-        networks.put(index, set);
+        networks[index] = set;
         return true;
     }
 
     public G getNetworkOfPort(int index){
         if(multi) return getNetworkOfPortMulti(index);
-        return networks.get(0);
+        return networks[0];
     }
 
     //multi
     G getNetworkOfPortMulti(int index){
         int l = graph.accept[index];
         if(l == 0) return null;
-        return networks.get(l - 1);
+        return networks[l - 1];
     }
 
     public void setNetworkOfPort(int index, G net){
         if(multi) setNetworkOfPortMulti(index, net);
-        else networks.put(0, net);
+        else networks[0] = net;
     }
 
     //multi
     void setNetworkOfPortMulti(int index, G net){
         int l = graph.accept[index];
         if(l == 0) return;
-        networks.put(l - 1, net);
+        networks[l - 1] = net;
     }
 
     abstract void writeGlobal(Writes write);
@@ -339,13 +416,13 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     void write(Writes write){
         writeGlobal(write);
         if(multi) writeMulti(write);
-        else writeLocal(write, networks.get(0));
+        else writeLocal(write, networks[0]);
     }
 
     //multi
     void writeMulti(Writes write){
-        write.b(networks.size);
-        for(var i : networks.values()) writeLocal(write, i);
+        write.b(networks.length);
+        for(var net : networks) writeLocal(write, net);
     }
 
     void read(Reads read, byte revision){
@@ -366,29 +443,21 @@ public abstract class GraphModule<T extends Graph, M extends GraphModule<T, M, G
     }
 
     public G getNetworkFromSet(int index){
-        return networks.get(index);
+        return index >= 0 && index < networks.length ? networks[index] : null;
     }
 
     boolean setNetworkFromSet(int index, G net){
-        if(networks.containsKey(index) && networks.get(index).id == net.id) return false;
-        networks.put(index, net);
+        if(index < 0 || index >= networks.length || networks[index] == net) return false;
+        networks[index] = net;
         return true;
     }
 
     //내가 추가한거
     public abstract GraphType type();
 
-    public int hueristic(Position target){
-        return d + Math.abs(Math.round(parent.build.x() - target.getX())) + Math.abs(Math.round(parent.build.y() - target.getY()));
-    }
-
-    public M d(int a){
-        d = a;
-        return (M)this;
-    }
-
     public int portIndex(M module){
-        return neighbours.get(module, -1);
+        int i = indexOfNeighbour(module);
+        return i == -1 ? -1 : neighbourPorts[i];
     }
 
     public float getTemp(){
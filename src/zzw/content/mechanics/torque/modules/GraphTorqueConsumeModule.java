@@ -6,13 +6,12 @@ import zzw.content.mechanics.torque.graphs.*;
 public class GraphTorqueConsumeModule extends GraphTorqueModule<GraphTorqueConsume>{
     @Override
     void updateExtension(){
-        if(!parent.build.asBuilding().enabled) friction = graph.idleFriction;
-        else friction = graph.workingFriction;
+        setFriction(parent.build.asBuilding().enabled ? graph.workingFriction : graph.idleFriction);
     }
 
     @Override
     float efficiency(){
-        float ratio = networks.get(0).lastVelocity / graph.nominalSpeed;
+        float ratio = networks[0].lastVelocity / graph.nominalSpeed;
         if(ratio > 1f){
             ratio = Mathf.log2(ratio);
             ratio = 1f + ratio * graph.oversupplyFalloff;
@@ -16,9 +16,9 @@ public class GraphTorqueGenerateModule extends GraphTorqueModule<GraphTorqueGene
 
     @Override
     void updateExtension(){
-        force = Utils.linear(networks.get(0).lastVelocity, graph.maxSpeed, graph.maxTorque, graph.torqueCoeff)
-            * parent.build.asBuilding().edelta() * motorForceMult * maxMotorForceMult;
-        smoothedForce.add(force);
+        setForce(Utils.linear(networks[0].lastVelocity, graph.maxSpeed, graph.maxTorque, graph.torqueCoeff)
+            * parent.build.asBuilding().edelta() * motorForceMult * maxMotorForceMult);
+        smoothedForce.add(force());
     }
 
     @Override
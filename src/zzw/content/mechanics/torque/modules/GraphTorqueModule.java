@@ -1,8 +1,8 @@
 package zzw.content.mechanics.torque.modules;
 
 import arc.graphics.*;
+import arc.math.*;
 import arc.scene.ui.layout.*;
-import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
 import mindustry.gen.*;
@@ -15,32 +15,31 @@ import zzw.content.mechanics.torque.meta.*;
 //_RotPowerPropsCommon
 public class GraphTorqueModule<T extends GraphTorque> extends GraphModule<T, GraphTorqueModule<T>, TorqueGraph<T>>{
     static final Color[] pals = new Color[]{Pal.accent, Pal.redSpark, Pal.plasticSmoke, Pal.lancerLaser};
-    public float force, inertia;
-    final IntFloatMap rots = new IntFloatMap(4);//propsList
+    //written only through setForce/setInertia so the packed solver arrays stay in sync and sleeping networks wake
+    private float force, inertia;
+    //rotation offsets from rotGraphs[slot].rotation, resolved lazily in getRotationOf()
+    float[] rots = new float[1];//propsList
+    TorqueGraph<T>[] rotGraphs = new TorqueGraph[1];
+    int[] solverSlots = new int[1];
     float friction;
 
     @Override
     void applySaveState(TorqueGraph<T> graph, int index){
-        graph.lastVelocity = Math.max(graph.lastVelocity, ((Float[])saveCache.get(index))[0]);
+        graph.setVelocity(Math.max(graph.lastVelocity, ((Float[])saveCache.get(index))[0]));
     }
 
     @Override
     void updateExtension(){}
 
     @Override
-    void updateProps(TorqueGraph<T> graph, int index){
-        float rot = rots.get(index, 0f);
-        rot += graph.lastVelocity;
-        rot %= (360f * 24f);
-        rots.put(index, rot);
-    }
+    void updateProps(TorqueGraph<T> graph, int index){}
 
     @Override
     void proximityUpdateCustom(){}
 
     @Override
     void display(Table table){
-        TorqueGraph<T> net = networks.get(0);
+        TorqueGraph<T> net = networks[0];
         if(multi || net == null) return;
         String ps = " " + StatUnit.perSecond.localized();
         table.row();
@@ -53,6 +52,9 @@ public class GraphTorqueModule<T extends GraphTorque> extends GraphModule<T, Gra
 
     @Override
     void initStats(){
+        rots = new float[networks.length];
+        rotGraphs = new TorqueGraph[networks.length];
+        solverSlots = new int[networks.length];
         friction = graph.baseFriction;
         setInertia(graph.baseInertia);
     }
@@ -62,8 +64,10 @@ public class GraphTorqueModule<T extends GraphTorque> extends GraphModule<T, Gra
 
     @Override
     void drawSelect(){
-        for(var graph : networks){
-            graph.value.connected.each(module -> Drawf.selected(module.parent.build.<Building>self(), pals[graph.key]));
+        for(int i = 0; i < networks.length; i++){
+            if(networks[i] == null) continue;
+            Color pal = pals[i];
+            networks[i].connected.each(module -> Drawf.selected(module.parent.build.<Building>self(), pal));
         }
     }
 
@@ -84,6 +88,7 @@ public class GraphTorqueModule<T extends GraphTorque> extends GraphModule<T, Gra
         force = read.f();
         inertia = read.f();
         friction = read.f();
+        syncSolver();
     }
 
     @Override
@@ -113,18 +118,62 @@ public class GraphTorqueModule<T extends GraphTorque> extends GraphModule<T, Gra
         float diff = iner - inertia;
         if(diff != 0f){
             if(multi){
-                for(var i : networks.values()) i.injectInertia(diff);
-            }else networks.get(0).injectInertia(diff);
+                for(var net : networks){
+                    if(net != null) net.injectInertia(diff);
+                }
+            }else if(networks[0] != null) networks[0].injectInertia(diff);
         }
         inertia = iner;
+        syncSolver();
+    }
+
+    public void setForce(float f){
+        if(force == f) return;
+        force = f;
+        syncSolver();
+    }
+
+    public void setFriction(float f){
+        if(friction == f) return;
+        friction = f;
+        syncSolver();
+    }
+
+    /** Pushes force/friction/inertia into the packed arrays of every network this module belongs to. */
+    void syncSolver(){
+        for(int i = 0; i < networks.length; i++){
+            if(networks[i] != null) networks[i].syncInputs(this, solverSlots[i]);
+        }
+    }
+
+    /** Called by {@link TorqueGraph} when packing; rebases the rotation offset onto the new network. */
+    public void bindSolver(TorqueGraph<T> net, int slot){
+        int index = getPortOfNetwork(net);
+        if(index == -1) return;
+        solverSlots[index] = slot;
+        if(rotGraphs[index] != net){
+            float rot = getRotationOf(index);
+            rotGraphs[index] = net;
+            rots[index] = rot - net.rotation;
+        }
     }
 
     public float getRotation(){
-        return rots.get(0, 0f);
+        return getRotationOf(0);
     }
 
     public float getRotationOf(int index){
-        return rots.get(index, 0f);
+        if(index >= rots.length) return 0f;
+        TorqueGraph<T> net = rotGraphs[index];
+        return net == null ? rots[index] : Mathf.mod(net.rotation + rots[index], 360f * 24f);
+    }
+
+    public float force(){
+        return force;
+    }
+
+    public float inertia(){
+        return inertia;
     }
 
     public float friction(){
@@ -7,13 +7,13 @@ public class GraphTorqueTransModule extends GraphTorqueModule<GraphTorqueTrans>{
 
     @Override
     void updateExtension(){
-        if(networks.isEmpty() || dead) return;
+        if(dead) return;
         float[] ratios = graph.ratio;
         float totalMRatio = 0f;
         float totalM = 0f;
         boolean allPositive = true;
         for(int i = 0; i < ratios.length; i++){
-            TorqueGraph net = networks.get(i);
+            TorqueGraph net = getNetworkFromSet(i);
             if(net == null) return;
             totalMRatio += net.lastInertia * ratios[i];
             totalM += net.lastInertia * net.lastVelocity;
@@ -21,9 +21,9 @@ public class GraphTorqueTransModule extends GraphTorqueModule<GraphTorqueTrans>{
         }
         if(totalMRatio != 0f && totalM != 0 && allPositive){
             for(int i = 0; i < ratios.length; i++){
-                TorqueGraph net = networks.get(i);
+                TorqueGraph net = getNetworkFromSet(i);
                 float cratio = net.lastInertia * ratios[i] / totalMRatio;
-                net.lastVelocity = totalM * cratio / net.lastInertia;
+                net.setVelocity(totalM * cratio / net.lastInertia);
             }
         }
     }
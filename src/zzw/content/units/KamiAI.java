@@ -12,7 +12,6 @@ import arc.util.Tmp;
 import arc.util.Time;
 import mindustry.entities.Units;
 import mindustry.entities.units.UnitController;
-import mindustry.gen.Bullet;
 import mindustry.gen.Call;
 import mindustry.gen.Groups;
 import mindustry.gen.Player;
@@ -36,7 +35,7 @@ import static zzw.content.Z_Bullets.kamiBullet3;
  * 简化:
  * - 使用标准 UnitController (不需要自定义 Entity)
  * - 移除 hyperSpeedPattern (需要自定义 laser entity, 过于复杂)
- * - 弹幕用 b.data (float[]) 存储 width/length/turn
+ * - 弹幕不再是 Bullet 实体, 由 {@link KamiBullets} 弹幕引擎按弹环发射、更新、碰撞和绘制
  *
  * 参考: PU132 unity/ai/kami/KamiAI.java + KamiPatterns.java
  */
@@ -162,25 +161,13 @@ public class KamiAI implements UnitController {
 
         // 内层弹环: 6-12 子弹, 旋转
         if (shoot(0, 15f)) {
-            for (int i = 0; i < diff; i++) {
-                float ang = (i * (360f / diff)) + reloads[1];
-                Bullet b = kamiBullet2.create(u, u.team, u.x, u.y, ang);
-                setBulletData(b, 4f, 4f, turn);
-                b.lifetime = 5f * 60f;
-                b.vel.scl(4f);
-            }
+            KamiBullets.ring(kamiBullet2, u.x, u.y, diff, reloads[1], 360f / diff, 4f, 5f * 60f, 4f, 4f, turn);
             reloads[1] += 180f / diff;
         }
 
         // 外层弹环: 16-32 子弹
         if (shoot(2, 40f)) {
-            for (int i = 0; i < diff2; i++) {
-                float ang = (i * (360f / diff2)) + reloads[3];
-                Bullet b = kamiBullet2.create(u, u.team, u.x, u.y, ang);
-                setBulletData(b, 10f, 10f, 0f);
-                b.lifetime = 5f * 60f;
-                b.vel.scl(5f);
-            }
+            KamiBullets.ring(kamiBullet2, u.x, u.y, diff2, reloads[3], 360f / diff2, 5f, 5f * 60f, 10f, 10f, 0f);
             reloads[3] += 180f / diff2;
         }
     }
@@ -191,13 +178,7 @@ public class KamiAI implements UnitController {
         int diff = 8 + difficulty / 2;
 
         if (reloads[3] < 2f * 60f && shoot(1, 5f)) {
-            for (int i = 0; i < diff; i++) {
-                float ang = (i * (360f / diff)) + reloads[2];
-                Bullet b = kamiBullet3.create(u, u.team, u.x, u.y, ang);
-                setBulletData(b, 6f, 6f, 0.25f * reloads[0]);
-                b.lifetime = 6f * 60f;
-                b.vel.scl(4f);
-            }
+            KamiBullets.ring(kamiBullet3, u.x, u.y, diff, reloads[2], 360f / diff, 4f, 6f * 60f, 6f, 6f, 0.25f * reloads[0]);
             reloads[0] *= -1f;
             reloads[2] += (40f / diff) * reloads[4];
         }
@@ -218,26 +199,14 @@ public class KamiAI implements UnitController {
             if (shoot(0, 10f)) {
                 int shots = 5 + difficulty;
                 float baseAng = u.angleTo(target);
-                for (int i = 0; i < shots; i++) {
-                    float ang = baseAng + (i - shots / 2f) * 12f;
-                    Bullet b = kamiBullet2.create(u, u.team, u.x, u.y, ang);
-                    setBulletData(b, 5f, 5f, 0f);
-                    b.lifetime = 5f * 60f;
-                    b.vel.scl(6f);
-                }
+                KamiBullets.ring(kamiBullet2, u.x, u.y, shots, baseAng - shots / 2f * 12f, 12f, 6f, 5f * 60f, 5f, 5f, 0f);
             }
         }
         // 阶段2: 环形扩张弹幕 (8 秒后)
         else {
             if (shoot(1, 25f)) {
                 int ringCount = 12 + difficulty * 2;
-                for (int i = 0; i < ringCount; i++) {
-                    float ang = (i * (360f / ringCount)) + reloads[2];
-                    Bullet b = kamiBullet3.create(u, u.team, u.x, u.y, ang);
-                    setBulletData(b, 8f, 8f, 0.08f);
-                    b.lifetime = 6f * 60f;
-                    b.vel.scl(3f);
-                }
+                KamiBullets.ring(kamiBullet3, u.x, u.y, ringCount, reloads[2], 360f / ringCount, 3f, 6f * 60f, 8f, 8f, 0.08f);
                 reloads[2] += 15f;
             }
         }
@@ -249,27 +218,15 @@ public class KamiAI implements UnitController {
         int petals = 3 + Mathf.clamp(difficulty, 0, 5);
 
         if (shoot(0, 14f)) {
-            for (int i = 0; i < petals; i++) {
-                float baseAng = (i * (360f / petals)) + reloads[1];
-                // 双向射击: 正向 + 反向
-                for (int dir : Mathf.signs) {
-                    float ang = baseAng + dir * reloads[2];
-                    Bullet b = kamiBullet2.create(u, u.team, u.x, u.y, ang);
-                    setBulletData(b, 6f, 6f, dir * 0.12f);
-                    b.lifetime = 5f * 60f;
-                    b.vel.scl(4f);
-                }
+            // 双向射击: 正向 + 反向, 每个方向一个弹环
+            for (int dir : Mathf.signs) {
+                KamiBullets.ring(kamiBullet2, u.x, u.y, petals, reloads[1] + dir * reloads[2], 360f / petals, 4f, 5f * 60f, 6f, 6f, dir * 0.12f);
             }
             reloads[1] += 8f;
             reloads[2] += 6f;
         }
     }
 
-    /** 设置弹幕子弹的 width/length/turn 数据 */
-    private void setBulletData(Bullet b, float width, float length, float turn) {
-        b.data = new float[]{width, length, turn};
-    }
-
     /** 屏障: 将离开范围的玩家拉回 */
     private void updateBarrier() {
         for (Player p : Groups.player) {
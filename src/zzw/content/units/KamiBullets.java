@@ -0,0 +1,272 @@
+package zzw.content.units;
+
+import arc.Core;
+import arc.Events;
+import arc.graphics.Blending;
+import arc.graphics.Color;
+import arc.graphics.g2d.Draw;
+import arc.graphics.g2d.TextureRegion;
+import arc.math.Mathf;
+import arc.struct.IntSeq;
+import arc.util.Time;
+import arc.util.Tmp;
+import mindustry.game.EventType.*;
+import mindustry.gen.Call;
+import mindustry.gen.Groups;
+import mindustry.gen.Player;
+import mindustry.gen.Unit;
+import mindustry.graphics.Layer;
+import zzw.content.units.bullets.KamiBulletType;
+
+import java.util.Arrays;
+
+import static mindustry.Vars.*;
+
+/**
+ * kami 弹幕引擎
+ *
+ * 原先每颗弹幕都是一个 Bullet 实体 (BulletType.create + b.data = new float[]), 逐个更新、逐个切换混合模式绘制。
+ * 这里改为独立的弹幕池:
+ * - 状态保存在基本类型数组中 (位置/速度/转向/尺寸/寿命/色相相位), 由 Trigger.update 一次循环更新
+ * - 每 tick 把弹幕按格子分桶, 只对玩家单位附近的桶做碰撞, 同一颗弹幕对同一单位只造成一次伤害 (穿透)
+ * - Trigger.draw 中一次性切换到加法混合, 批量绘制全部弹幕 (色相取自预计算表)
+ * - 弹幕以 "环" 为单位发射 ({@link #ring}), 联机时服务器每个环只发送一个数据包, 客户端按相同参数重现;
+ *   伤害只在服务器 (或单机) 结算
+ *
+ * 伤害/碰撞尺寸/是否拖尾取自 {@link KamiBulletType} (kamiBullet2 / kamiBullet3)。
+ */
+public class KamiBullets {
+    /** 碰撞分桶的格子大小 (世界单位) 与桶数 (2 的幂) */
+    static final float cellSize = 32f;
+    static final int buckets = 1024, bucketMask = buckets - 1;
+    static final float trailLength = 12f;
+    static final String ringPacket = "create-kami-ring";
+
+    static int count;
+    static float[] xs = new float[256], ys = new float[256], vxs = new float[256], vys = new float[256];
+    static float[] turns = new float[256], widths = new float[256], lengths = new float[256];
+    static float[] times = new float[256], lifetimes = new float[256];
+    static KamiBulletType[] types = new KamiBulletType[256];
+    /** 每颗弹幕已命中的单位 id, 穿透弹幕对每个单位只造成一次伤害; 移除弹幕时对象留在池尾复用 */
+    static IntSeq[] hits = new IntSeq[256];
+    static int[] next = new int[256];
+    static final int[] heads = new int[buckets];
+    /** 360 个色相 (红色起始) 的预计算颜色 */
+    static final Color[] hues = new Color[360];
+    static TextureRegion circle;
+    static boolean registered;
+
+    /** 注册弹幕的更新/绘制与联机数据包, 在 Z_Units.load() 中调用 */
+    public static void init() {
+        if (registered) return;
+        registered = true;
+        for (int i = 0; i < hues.length; i++) hues[i] = Color.red.cpy().shiftHue(i);
+        Events.run(Trigger.update, KamiBullets::update);
+        Events.run(Trigger.draw, KamiBullets::draw);
+        Events.on(WorldLoadEvent.class, e -> clear());
+        Events.on(ResetEvent.class, e -> clear());
+        Events.on(ClientLoadEvent.class, e -> netClient.addPacketHandler(ringPacket, KamiBullets::readRing));
+    }
+
+    /**
+     * 发射一个弹幕环: count 颗弹幕, 第 i 颗的角度为 start + i * step
+     * @param speed 每 tick 移动距离
+     * @param turn 每 tick 转向角度
+     */
+    public static void ring(KamiBulletType type, float x, float y, int count, float start, float step,
+                            float speed, float lifetime, float width, float length, float turn) {
+        if (net.client()) return;
+        spawnRing(type, x, y, count, start, step, speed, lifetime, width, length, turn);
+        if (net.server()) {
+            Call.clientPacketReliable(ringPacket, type.id + " " + x + " " + y + " " + count + " " + start + " " + step + " "
+                + speed + " " + lifetime + " " + width + " " + length + " " + turn);
+        }
+    }
+
+    static void readRing(String data) {
+        String[] s = data.split(" ");
+        if (s.length < 11) return;
+        try {
+            if (!(content.bullet(Integer.parseInt(s[0])) instanceof KamiBulletType type)) return;
+            spawnRing(type, Float.parseFloat(s[1]), Float.parseFloat(s[2]), Integer.parseInt(s[3]),
+                Float.parseFloat(s[4]), Float.parseFloat(s[5]), Float.parseFloat(s[6]), Float.parseFloat(s[7]),
+                Float.parseFloat(s[8]), Float.parseFloat(s[9]), Float.parseFloat(s[10]));
+        } catch (NumberFormatException ignored) {}
+    }
+
+    static void spawnRing(KamiBulletType type, float x, float y, int n, float start, float step,
+                          float speed, float lifetime, float width, float length, float turn) {
+        for (int k = 0; k < n; k++) {
+            if (count == xs.length) grow();
+            float ang = start + k * step;
+            int i = count++;
+            xs[i] = x;
+            ys[i] = y;
+            vxs[i] = Mathf.cosDeg(ang) * speed;
+            vys[i] = Mathf.sinDeg(ang) * speed;
+            turns[i] = turn;
+            widths[i] = width;
+            lengths[i] = length;
+            times[i] = 0f;
+            lifetimes[i] = lifetime;
+            types[i] = type;
+            if (hits[i] == null) hits[i] = new IntSeq(2);
+            else hits[i].clear();
+        }
+    }
+
+    /** 当前存在的弹幕数量 */
+    public static int count() {
+        return count;
+    }
+
+    public static void clear() {
+        Arrays.fill(types, 0, count, null);
+        count = 0;
+    }
+
+    static void grow() {
+        int cap = xs.length * 2;
+        xs = Arrays.copyOf(xs, cap);
+        ys = Arrays.copyOf(ys, cap);
+        vxs = Arrays.copyOf(vxs, cap);
+        vys = Arrays.copyOf(vys, cap);
+        turns = Arrays.copyOf(turns, cap);
+        widths = Arrays.copyOf(widths, cap);
+        lengths = Arrays.copyOf(lengths, cap);
+        times = Arrays.copyOf(times, cap);
+        lifetimes = Arrays.copyOf(lifetimes, cap);
+        types = Arrays.copyOf(types, cap);
+        hits = Arrays.copyOf(hits, cap);
+        next = Arrays.copyOf(next, cap);
+    }
+
+    /** 用最后一颗弹幕覆盖下标 i */
+    static void remove(int i) {
+        int last = --count;
+        if (i != last) {
+            xs[i] = xs[last];
+            ys[i] = ys[last];
+            vxs[i] = vxs[last];
+            vys[i] = vys[last];
+            turns[i] = turns[last];
+            widths[i] = widths[last];
+            lengths[i] = lengths[last];
+            times[i] = times[last];
+            lifetimes[i] = lifetimes[last];
+            types[i] = types[last];
+            IntSeq h = hits[i];
+            hits[i] = hits[last];
+            hits[last] = h;
+        }
+        types[last] = null;
+    }
+
+    static void update() {
+        if (count == 0 || !state.isPlaying()) return;
+        float delta = Time.delta;
+
+        for (int i = 0; i < count; ) {
+            times[i] += delta;
+            if (times[i] >= lifetimes[i]) {
+                remove(i);
+                continue;
+            }
+            // 转向: 速度向量旋转 turn * delta 度 (PU132 KamiBulletComp: rotation += turn * delta)
+            if (turns[i] != 0f) {
+                float a = turns[i] * delta, c = Mathf.cosDeg(a), s = Mathf.sinDeg(a);
+                float vx = vxs[i];
+                vxs[i] = vx * c - vys[i] * s;
+                vys[i] = vx * s + vys[i] * c;
+            }
+            xs[i] += vxs[i] * delta;
+            ys[i] += vys[i] * delta;
+            i++;
+        }
+
+        if (!net.client()) collide();
+    }
+
+    static int bucket(int cx, int cy) {
+        return (cx * 73856093 ^ cy * 19349663) & bucketMask;
+    }
+
+    /** 弹幕按格子分桶, 对每个玩家单位只检查其附近的桶 */
+    static void collide() {
+        Arrays.fill(heads, -1);
+        float maxHit = 0f;
+        for (int i = 0; i < count; i++) {
+            int b = bucket(Mathf.floor(xs[i] / cellSize), Mathf.floor(ys[i] / cellSize));
+            next[i] = heads[b];
+            heads[b] = i;
+            maxHit = Math.max(maxHit, types[i].hitSize);
+        }
+
+        for (Player p : Groups.player) {
+            Unit u = p.unit();
+            if (u == null || !u.isValid() || !u.hittable()) continue;
+            float reach = u.hitSize / 2f + maxHit / 2f;
+            int cx0 = Mathf.floor((u.x - reach) / cellSize), cx1 = Mathf.floor((u.x + reach) / cellSize);
+            int cy0 = Mathf.floor((u.y - reach) / cellSize), cy1 = Mathf.floor((u.y + reach) / cellSize);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    // 不同格子可能落在同一个桶, 靠距离判定与 hits 过滤
+                    for (int i = heads[bucket(cx, cy)]; i != -1; i = next[i]) {
+                        float r = u.hitSize / 2f + types[i].hitSize / 2f;
+                        if (!Mathf.within(xs[i], ys[i], u.x, u.y, r) || hits[i].contains(u.id)) continue;
+                        hits[i].add(u.id);
+                        u.damage(types[i].damage);
+                        if (!u.isValid()) break;
+                    }
+                }
+            }
+        }
+    }
+
+    static void draw() {
+        if (count == 0) return;
+        if (circle == null) circle = Core.atlas.find("circle");
+        float z = Draw.z();
+        Draw.z(Layer.bullet);
+        Draw.blend(Blending.additive);
+
+        Core.camera.bounds(Tmp.r1).grow(64f);
+        float vx0 = Tmp.r1.x, vy0 = Tmp.r1.y;
+        float vx1 = vx0 + Tmp.r1.width, vy1 = vy0 + Tmp.r1.height;
+        float globalHue = Time.time / 2f;
+
+        for (int i = 0; i < count; i++) {
+            float x = xs[i], y = ys[i];
+            if (x < vx0 || x > vx1 || y < vy0 || y > vy1) continue;
+            float width = widths[i], length = lengths[i];
+            float rot = Mathf.angle(vxs[i], vys[i]);
+            // 色相循环 (与 KamiBulletType.draw 一致)
+            float time = times[i] * 2f + globalHue;
+            float st = Mathf.clamp(Math.max(width, length) / 10f + 1.2f, 1.5f, 4f) * (1f + Mathf.absin(time, 10f, 0.33f));
+
+            if (types[i].hasTrail) {
+                float cos = Mathf.cosDeg(rot), sin = Mathf.sinDeg(rot);
+                for (int k = 1; k <= 3; k++) {
+                    float t = k / 3f;
+                    Draw.color(hue(time - k * 5f));
+                    Draw.alpha(1f - t * 0.7f);
+                    Draw.rect(circle, x - cos * trailLength * t, y - sin * trailLength * t,
+                        width * 2f * (1f - t * 0.4f), length * 2f * (1f - t * 0.4f), rot);
+                }
+            }
+
+            Draw.color(hue(time));
+            Draw.rect(circle, x, y, width * 2f + st, length * 2f + st, rot);
+            Draw.color(Color.white);
+            Draw.rect(circle, x, y, width * 2f, length * 2f, rot);
+        }
+
+        Draw.blend();
+        Draw.reset();
+        Draw.z(z);
+    }
+
+    static Color hue(float h) {
+        return hues[Mathf.mod((int) h, 360)];
+    }
+}
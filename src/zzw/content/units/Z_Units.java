@@ -25,6 +25,7 @@ import mindustry.type.Weapon;
 
 import zzw.content.units.abilities.CustomLegsAbility;
 import zzw.content.units.abilities.TimeStopAbility;
+import zzw.content.units.anticheat.DensityGrid;
 import zzw.content.units.anticheat.AntiCheatBulletModule;
 import zzw.content.units.anticheat.ArmorDamageModule;
 import zzw.content.units.anticheat.AbilityDamageModule;
@@ -177,6 +178,10 @@ public class Z_Units {
         // ★ 注册世界单位子世界存档区块 (修复重进地图 Terra 子世界内容消失)
         //   通过 SaveVersion CustomChunk 保存/恢复子世界建筑, 旧存档自动兼容
         WorldUnitEntity.registerSaveChunk();
+        // ★ kami 弹幕引擎 (弹幕池的更新/绘制与联机弹环数据包)
+        KamiBullets.init();
+        // ★ 反作弊子弹落点选择用的敌方密度场
+        DensityGrid.init();
         // ★ 注册 SlowLightningEntity (慢闪电 Entity, 实现 Drawc 接口)
         SlowLightningEntity.register();
 
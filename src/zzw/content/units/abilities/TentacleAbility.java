@@ -16,6 +16,7 @@ import mindustry.entities.bullet.BulletType;
 import mindustry.entities.Units;
 import mindustry.gen.*;
 import mindustry.type.UnitType;
+import zzw.content.units.utils.TargetCache;
 
 /**
  * 鞭子触手 Ability (完整移植 PU132 NewTentacle)
@@ -279,7 +280,8 @@ public class TentacleAbility extends Ability {
         if (automatic || !player) {
             if (targets[t] == null && (retargets[t] += Time.delta) >= 20f) {
                 float rootRange = (segments * segmentLength) + (bullet != null ? bullet.range * 0.75f : 0f);
-                targets[t] = Units.closestTarget(unit.team, ex, ey, range,
+                // 各触手共用单位的索敌候选, 不再每根触手单独做空间查询
+                targets[t] = TargetCache.closestTarget(unit, ex, ey, range,
                     u -> u.isValid() && u.team != unit.team && rootPos.within(u, rootRange),
                     b -> b.team != unit.team && rootPos.within(b, rootRange));
                 retargets[t] = 0f;
@@ -3,11 +3,14 @@ package zzw.content.units.abilities;
 import arc.util.Time;
 import arc.math.Mathf;
 import mindustry.entities.abilities.Ability;
+import mindustry.entities.units.WeaponMount;
 import mindustry.content.Fx;
 import mindustry.gen.Unit;
 import mindustry.gen.Teamc;
-import mindustry.entities.Units;
 import arc.audio.Sound;
+import zzw.content.units.utils.TargetCache;
+
+import static mindustry.Vars.state;
 
 /**
  * 时间停止能力 (简化版, 完全用原版方法实现)
@@ -17,29 +20,40 @@ import arc.audio.Sound;
  *
  * 简化版机制:
  * - 自动触发: 当附近有敌方目标且充能完成时
- * - 效果: 快速模拟单位更新 (设 Time.delta=3f, 循环调用 unit.update(), 让单位在瞬间行动多次)
+ * - 效果: 额外模拟单位 min(duration, maxIterations * stepDelta) tick (AI、武器、移动), 让单位短时间内行动多次
  * - 视觉: 冲击波特效 + 音效
  *
- * ★ 递归保护: updating 标志防止 unit.update() → ability.update() → trigger() → unit.update() 递归
- *   限制迭代次数 (60次=3秒模拟时间), 避免卡死
+ * 额外的模拟时间不在触发的一帧内同步跑完 (原先设 Time.delta=3f 循环调用 unit.update() 最多 60 次),
+ * 而是记为待模拟步数, 之后每帧最多补 {@link #stepsPerFrame} 步; 所有时停单位每次逻辑更新合计最多
+ * {@link #maxStepsPerUpdate} 步, 超出的顺延。子步只推进 AI、武器和移动, 不再重复跑能力、状态效果等完整更新,
+ * 因此也不会递归触发本能力。
  */
 public class TimeStopAbility extends Ability {
+    /** 所有时停单位每次逻辑更新合计最多模拟的子步数 */
+    public static int maxStepsPerUpdate = 16;
+
     /** 持续时间 (ticks) */
     public float duration;
     /** 充能时间 (ticks) */
     public float rechargeTime;
     /** 触发范围 */
     public float range = 300f;
-    /** 最大模拟迭代次数 (防止卡死, 60次=3秒模拟时间) */
+    /** 最大模拟子步数 (60 步 × 3 tick = 3 秒模拟时间) */
     public int maxIterations = 60;
+    /** 每个子步的 Time.delta */
+    public float stepDelta = 3f;
+    /** 每帧最多模拟的子步数 */
+    public int stepsPerFrame = 4;
 
     /** ★ PU132 原版: timeStopSound = UnitySounds.stopTime */
     public Sound timeStopSound;
 
     /** 当前充能计时器 */
     protected float timer = 0f;
-    /** ★ 递归保护: 正在模拟更新时为 true, 防止 unit.update() → ability.update() → trigger() 递归 */
-    private boolean updating = false;
+    /** 尚未模拟的子步数 */
+    protected int pendingSteps;
+
+    static int budgetUpdate = -1, budgetUsed;
 
     public TimeStopAbility(float duration, float rechargeTime) {
         this.duration = duration;
@@ -53,14 +67,13 @@ public class TimeStopAbility extends Ability {
 
     @Override
     public void update(Unit unit) {
-        // ★ 递归保护: 模拟更新期间跳过 (防止 unit.update() → ability.update() → trigger() 递归)
-        if (updating) return;
+        if (pendingSteps > 0) simulate(unit);
 
         timer += Time.delta;
 
         if (timer >= rechargeTime) {
             // 检查附近是否有敌方目标
-            Teamc target = Units.closestTarget(unit.team, unit.x, unit.y, range,
+            Teamc target = TargetCache.closestTarget(unit, unit.x, unit.y, range,
                 u -> !u.dead, t -> true);
             if (target != null) {
                 trigger(unit);
@@ -70,7 +83,7 @@ public class TimeStopAbility extends Ability {
 
     /**
      * 触发时间停止 (PU132 原版 AI 逻辑)
-     * 快速模拟单位更新, 让单位在瞬间行动多次
+     * 记下需要额外模拟的子步数, 之后几帧内补完
      */
     protected void trigger(Unit unit) {
         timer = 0f;
@@ -84,24 +97,41 @@ public class TimeStopAbility extends Ability {
         Fx.shockwave.at(unit.x, unit.y, unit.hitSize);
         Fx.smoke.at(unit.x, unit.y);
 
-        // 快速模拟 (PU132 TimeStopAbility.use L43-53)
-        // Time.delta 设为 3f, 循环调用 unit.update()
-        // ★ PU132 有 update 标志防止递归, 这里用 updating 标志替代
+        // 与原先 for (i < duration && iterations < maxIterations; i += 3f) 的次数一致
+        pendingSteps = Math.min(Mathf.ceil(duration / stepDelta), maxIterations);
+    }
+
+    /** 在本帧预算内模拟待补的子步 */
+    protected void simulate(Unit unit) {
+        if (budgetUpdate != state.updateId) {
+            budgetUpdate = state.updateId;
+            budgetUsed = 0;
+        }
+        int steps = Math.min(Math.min(pendingSteps, stepsPerFrame), maxStepsPerUpdate - budgetUsed);
+        if (steps <= 0) return;
+        budgetUsed += steps;
+        pendingSteps -= steps;
+
         float delta = Time.delta;
-        Time.delta = 3f;
-        updating = true;  // ★ 递归保护开始
-
-        int iterations = 0;
-        for (float i = 0; i < duration && iterations < maxIterations; i += Time.delta) {
-            try {
-                unit.update();
-            } catch (Throwable t) {
-                break;
+        Time.delta = stepDelta;
+        try {
+            for (int i = 0; i < steps && unit.isValid(); i++) {
+                step(unit);
             }
-            iterations++;
+        } catch (Throwable t) {
+            pendingSteps = 0;
+        } finally {
+            Time.delta = delta;
         }
+    }
 
-        updating = false;  // ★ 递归保护结束
-        Time.delta = delta;
+    /** 一个子步: AI 决策 → 武器 → 速度积分与阻力 (单位完整 update() 中的对应部分) */
+    protected void step(Unit unit) {
+        unit.controller().updateUnit();
+        for (WeaponMount mount : unit.mounts) {
+            mount.weapon.update(unit, mount);
+        }
+        unit.move(unit.vel.x * Time.delta, unit.vel.y * Time.delta);
+        unit.vel.scl(Math.max(1f - unit.drag * Time.delta, 0f));
     }
 }
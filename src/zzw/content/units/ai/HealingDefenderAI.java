@@ -14,6 +14,7 @@ import mindustry.gen.Teamc;
 import mindustry.gen.Unit;
 import mindustry.type.Weapon;
 import mindustry.world.meta.BlockFlag;
+import zzw.content.units.utils.TargetCache;
 
 /**
  * 治疗防御 AI (移植自 PU132 unity.ai.HealingDefenderAI)
@@ -91,7 +92,7 @@ public class HealingDefenderAI extends DefenderAI {
     Teamc findTargetAlt(float x, float y, float range, boolean air, boolean ground) {
         Teamc trueResult;
         Building blockResult = ground ? Units.findDamagedTile(unit.team, unit.x, unit.y) : null;
-        Unit unitResult = Units.closest(unit.team, x, y, Math.max(range, 400f), u -> !u.dead() && u.damaged() && u.checkTarget(air, ground) && u.type != unit.type, (u, tx, ty) -> -u.maxHealth + Mathf.dst2(u.x, u.y, tx, ty) / 6400f);
+        Unit unitResult = TargetCache.closestAlly(unit, x, y, Math.max(range, 400f), u -> !u.dead() && u.damaged() && u.checkTarget(air, ground) && u.type != unit.type, (u, tx, ty) -> -u.maxHealth + Mathf.dst2(u.x, u.y, tx, ty) / 6400f);
         if (unitResult == null || (blockResult != null && (unitResult.dst2(unit) / 6400f) + unitResult.health > (blockResult.dst2(unit) / 6400f) + blockResult.health)) {
             trueResult = blockResult;
         } else {
@@ -104,7 +105,7 @@ public class HealingDefenderAI extends DefenderAI {
     public Teamc findTarget(float x, float y, float range, boolean air, boolean ground) {
         Teamc trueResult;
         Building blockResult = Units.findDamagedTile(unit.team, unit.x, unit.y);
-        Unit result = Units.closest(unit.team, x, y, Math.max(range, 400f), u -> !u.dead() && u.type != unit.type, (u, tx, ty) -> -u.maxHealth + Mathf.dst2(u.x, u.y, tx, ty) / 6400f);
+        Unit result = TargetCache.closestAlly(unit, x, y, Math.max(range, 400f), u -> !u.dead() && u.type != unit.type, (u, tx, ty) -> -u.maxHealth + Mathf.dst2(u.x, u.y, tx, ty) / 6400f);
         if (result == null || (blockResult != null && (result.dst2(unit) / 6400f) + result.health > (blockResult.dst2(unit) / 6400f) + blockResult.health)) {
             trueResult = blockResult;
         } else {
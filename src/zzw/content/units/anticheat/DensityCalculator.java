@@ -2,104 +2,56 @@ package zzw.content.units.anticheat;
 
 import arc.math.Angles;
 import arc.math.geom.Vec2;
-import arc.struct.Seq;
-import mindustry.Vars;
-import mindustry.entities.Units;
 import mindustry.game.Team;
 
+/**
+ * 反作弊子弹的落点选择: 沿射线找敌方密集处
+ *
+ * 密度读取 {@link DensityGrid} (增量维护的粗网格), 每个采样点一次数组读取, 不再逐点查询单位和建筑。
+ * 返回的 Vec2 为共享对象, 下一次调用时会被覆盖, 调用方需立即使用。
+ */
 public class DensityCalculator {
-    private static final float DENSITY_RADIUS = 150f;
+    private static final Vec2 result = new Vec2();
 
     public static Vec2 findDensePosition(float startX, float startY, float angle, float length, Team team) {
-        Seq<Vec2> candidates = new Seq<>();
         int steps = Math.max(5, (int)(length / 100f));
-
-        for (int i = 0; i <= steps; i++) {
-            float t = (float)i / steps;
-            float x = startX + Angles.trnsx(angle, t * length);
-            float y = startY + Angles.trnsy(angle, t * length);
-            candidates.add(new Vec2(x, y));
-        }
-
-        Vec2 best = null;
-        float bestScore = 0f;
-
-        for (Vec2 pos : candidates) {
-            float score = calculateDensity(pos.x, pos.y, team);
-            if (score > bestScore) {
-                bestScore = score;
-                best = pos;
-            }
+        if (!DensityGrid.rayMax(startX, startY, angle, length, steps, team) || DensityGrid.bestScore <= 0.5f) {
+            return null;
         }
-
-        return best != null && bestScore > 0.5f ? best : null;
+        return result.set(DensityGrid.bestX, DensityGrid.bestY);
     }
 
     public static float calculateDensity(float x, float y, Team team) {
-        float[] score = {0f};
-
-        Units.nearbyEnemies(team, x, y, DENSITY_RADIUS, unit -> {
-            if (unit.hittable()) {
-                float dist = unit.dst(x, y);
-                float weight = 1f - (dist / DENSITY_RADIUS);
-                score[0] += weight * weight;
-            }
-        });
-
-        Vars.indexer.eachBlock(null, x, y, DENSITY_RADIUS,
-            build -> build.team != team && build.health > 0,
-            build -> {
-                float dist = build.dst(x, y);
-                float weight = 1f - (dist / DENSITY_RADIUS);
-                score[0] += weight * weight * 0.3f;
-            });
-
-        return score[0];
+        return DensityGrid.enemyDensity(x, y, team);
     }
 
+    /** 在密度大于 0.3 的采样点中按密度加权随机选一个 */
     public static Vec2 findBestPosition(float startX, float startY, float angle, float length, Team team, int count) {
-        Seq<ScoredPos> candidates = new Seq<>();
         int steps = Math.max(5, (int)(length / 80f));
+        float dx = Angles.trnsx(angle, length), dy = Angles.trnsy(angle, length);
 
+        float totalWeight = 0f;
         for (int i = 0; i <= steps; i++) {
             float t = (float)i / steps;
-            float x = startX + Angles.trnsx(angle, t * length);
-            float y = startY + Angles.trnsy(angle, t * length);
-            float density = calculateDensity(x, y, team);
-            if (density > 0.3f) {
-                candidates.add(new ScoredPos(x, y, density));
-            }
+            float density = calculateDensity(startX + dx * t, startY + dy * t, team);
+            if (density > 0.3f) totalWeight += density;
         }
 
-        if (candidates.isEmpty()) {
+        if (totalWeight <= 0f) {
             return null;
         }
 
-        candidates.sort((a, b) -> Float.compare(b.score, a.score));
-
-        float totalWeight = 0;
-        for (ScoredPos c : candidates) {
-            totalWeight += c.score;
-        }
-
         float r = (float)Math.random() * totalWeight;
-        float accum = 0;
-        for (ScoredPos c : candidates) {
-            accum += c.score;
-            if (accum >= r) {
-                return new Vec2(c.x, c.y);
-            }
-        }
-
-        return new Vec2(candidates.first().x, candidates.first().y);
-    }
-
-    private static class ScoredPos {
-        float x, y, score;
-        ScoredPos(float x, float y, float score) {
-            this.x = x;
-            this.y = y;
-            this.score = score;
+        float accum = 0f;
+        for (int i = 0; i <= steps; i++) {
+            float t = (float)i / steps;
+            float x = startX + dx * t, y = startY + dy * t;
+            float density = calculateDensity(x, y, team);
+            if (density <= 0.3f) continue;
+            accum += density;
+            result.set(x, y);
+            if (accum >= r) break;
         }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package zzw.content.units.anticheat;
+
+import arc.Events;
+import arc.math.Angles;
+import arc.struct.IntIntMap;
+import mindustry.game.EventType.*;
+import mindustry.game.Team;
+import mindustry.gen.Building;
+import mindustry.gen.Groups;
+import mindustry.gen.Unit;
+import mindustry.world.Tile;
+import mindustry.world.Tiles;
+
+import java.util.Arrays;
+
+import static mindustry.Vars.*;
+
+/**
+ * 敌方密度场 (按队伍的粗网格, 每格 4×4 格子)
+ *
+ * 每个单位/建筑在所在格周围 {@link #radius} 内按 (1 - d/R)² 的权重 (建筑 ×0.3) 预先叠加到格子上,
+ * 查询某点的敌方密度只需读一个格子: total[格] - 本队[格]。
+ * 与 DensityCalculator 原先的逐点 Units.nearbyEnemies + indexer.eachBlock 结果相近,
+ * 距离按格子中心计算。
+ *
+ * 增量维护:
+ * - 单位: 每 tick 比较每个单位所在的格子/队伍, 只有跨格、换队、死亡/移除时才改动网格
+ * - 建筑: TileChangeEvent / BuildTeamChangeEvent / BlockDestroyEvent 时按建筑中心格更新
+ * - 世界加载时重建
+ */
+public class DensityGrid {
+    /** 每格边长 (格子数) */
+    public static final int cellTiles = 4;
+    public static final float cellSize = cellTiles * tilesize;
+    /** 密度半径 (世界单位, 与 DensityCalculator 原先的采样半径一致) */
+    public static final float radius = 150f;
+    static final float buildingWeight = 0.3f;
+
+    static int width, height;
+    /** 建立网格时的主世界格子 (世界单位的子世界也会触发 TileChangeEvent, 需排除) */
+    static Tiles tiles;
+    /** 所有队伍的密度之和 */
+    static float[] total = new float[0];
+    /** 每个队伍自己的密度, 没有出现过的队伍为 null */
+    static final float[][] teams = new float[Team.all.length][];
+    /** 核函数: 偏移 (dx, dy) 与权重 */
+    static int[] kernelX, kernelY;
+    static float[] kernelW;
+
+    /** 单位 id / 建筑中心 pos → 当前记入的 (格 * 256 + 队伍 id) */
+    static IntIntMap units = new IntIntMap(), unitsNext = new IntIntMap();
+    static final IntIntMap builds = new IntIntMap();
+    static boolean registered;
+
+    /** 最近一次 {@link #rayMax} 找到的位置与密度 */
+    public static float bestX, bestY, bestScore;
+
+    /** 注册增量更新, 在 Z_Units.load() 中调用 */
+    public static void init() {
+        if (registered) return;
+        registered = true;
+        buildKernel();
+        Events.on(WorldLoadEvent.class, e -> rebuild());
+        Events.on(ResetEvent.class, e -> clear());
+        Events.on(TileChangeEvent.class, e -> updateBuilding(e.tile));
+        Events.on(BuildTeamChangeEvent.class, e -> updateBuilding(e.build.tile));
+        Events.on(BlockDestroyEvent.class, e -> updateBuilding(e.tile));
+        Events.run(Trigger.update, DensityGrid::updateUnits);
+    }
+
+    static void buildKernel() {
+        int r = (int) (radius / cellSize);
+        int n = 0;
+        int[] kx = new int[(2 * r + 1) * (2 * r + 1)], ky = new int[kx.length];
+        float[] kw = new float[kx.length];
+        for (int dy = -r; dy <= r; dy++) {
+            for (int dx = -r; dx <= r; dx++) {
+                float d = (float) Math.sqrt(dx * dx + dy * dy) * cellSize;
+                if (d >= radius) continue;
+                float w = 1f - d / radius;
+                kx[n] = dx;
+                ky[n] = dy;
+                kw[n] = w * w;
+                n++;
+            }
+        }
+        kernelX = Arrays.copyOf(kx, n);
+        kernelY = Arrays.copyOf(ky, n);
+        kernelW = Arrays.copyOf(kw, n);
+    }
+
+    /** x, y 处 team 的敌方 (其他所有队伍) 密度 */
+    public static float enemyDensity(float x, float y, Team team) {
+        int cx = cell(x), cy = cell(y);
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return 0f;
+        int c = cy * width + cx;
+        float[] own = teams[team.id];
+        return Math.max(total[c] - (own == null ? 0f : own[c]), 0f);
+    }
+
+    /**
+     * 沿射线等距采样 steps + 1 个点 (含两端), 找敌方密度最大的点, 结果写入 {@link #bestX}/{@link #bestY}/{@link #bestScore}
+     * @return 是否找到密度大于 0 的点
+     */
+    public static boolean rayMax(float x, float y, float angle, float length, int steps, Team team) {
+        bestScore = 0f;
+        float dx = Angles.trnsx(angle, length), dy = Angles.trnsy(angle, length);
+        for (int i = 0; i <= steps; i++) {
+            float t = (float) i / steps;
+            float px = x + dx * t, py = y + dy * t;
+            float score = enemyDensity(px, py, team);
+            if (score > bestScore) {
+                bestScore = score;
+                bestX = px;
+                bestY = py;
+            }
+        }
+        return bestScore > 0f;
+    }
+
+    public static void clear() {
+        width = height = 0;
+        tiles = null;
+        total = new float[0];
+        Arrays.fill(teams, null);
+        units.clear();
+        unitsNext.clear();
+        builds.clear();
+    }
+
+    /** 世界加载: 按地图尺寸重新分配网格并记入全部建筑 (单位在下一 tick 记入) */
+    static void rebuild() {
+        clear();
+        width = (world.width() + cellTiles - 1) / cellTiles;
+        height = (world.height() + cellTiles - 1) / cellTiles;
+        total = new float[width * height];
+        tiles = world.tiles;
+        for (Building b : Groups.build) {
+            updateBuilding(b.tile);
+        }
+    }
+
+    static void updateBuilding(Tile tile) {
+        if (tile == null || total.length == 0 || tiles.get(tile.x, tile.y) != tile) return;
+        int pos = tile.pos();
+        int old = builds.get(pos, -1);
+        Building b = tile.build;
+        int key = b != null && b.tile == tile && b.health > 0 ? key(b.x, b.y, b.team) : -1;
+        if (old == key) return;
+        if (old != -1) stamp(old, -buildingWeight);
+        if (key != -1) {
+            stamp(key, buildingWeight);
+            builds.put(pos, key);
+        } else {
+            builds.remove(pos);
+        }
+    }
+
+    static void updateUnits() {
+        if (total.length == 0 || !state.isPlaying()) return;
+        IntIntMap prev = units, next = unitsNext;
+        for (Unit u : Groups.unit) {
+            int key = u.hittable() ? key(u.x, u.y, u.team) : -1;
+            int old = prev.remove(u.id, -1);
+            if (old != key) {
+                if (old != -1) stamp(old, -1f);
+                if (key != -1) stamp(key, 1f);
+            }
+            if (key != -1) next.put(u.id, key);
+        }
+        //剩下的是已死亡/移除或变为不可命中的单位
+        for (IntIntMap.Entry e : prev.entries()) {
+            stamp(e.value, -1f);
+        }
+        prev.clear();
+        units = next;
+        unitsNext = prev;
+    }
+
+    /** 网格外的位置返回 -1 */
+    static int key(float x, float y, Team team) {
+        int cx = cell(x), cy = cell(y);
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) return -1;
+        return (cy * width + cx) * 256 + team.id;
+    }
+
+    static void stamp(int key, float scale) {
+        int c = key >>> 8, team = key & 0xff;
+        float[] own = teams[team];
+        if (own == null) own = teams[team] = new float[total.length];
+        int cx = c % width, cy = c / width;
+        for (int i = 0; i < kernelW.length; i++) {
+            int x = cx + kernelX[i], y = cy + kernelY[i];
+            if (x < 0 || y < 0 || x >= width || y >= height) continue;
+            int idx = y * width + x;
+            float w = kernelW[i] * scale;
+            total[idx] += w;
+            own[idx] += w;
+        }
+    }
+
+    static int cell(float coord) {
+        return (int) Math.floor((coord / tilesize + 0.5f) / cellTiles);
+    }
+}
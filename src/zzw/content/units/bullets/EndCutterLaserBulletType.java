@@ -12,6 +12,7 @@ import arc.struct.Seq;
 import arc.util.Tmp;
 import arc.util.Time;
 import mindustry.Vars;
+import zzw.content.units.utils.BuildingLineQuery;
 import mindustry.entities.Effect;
 import mindustry.entities.Lightning;
 import mindustry.entities.Units;
@@ -193,11 +194,10 @@ public class EndCutterLaserBulletType extends AntiCheatBulletTypeBase {
         float ey = Tmp.v1.trns(b.rotation(), b.fdata).add(b.x, b.y).y;
         boolean[] hit = {false};
 
-        // 检测建筑: 使用 Vars.indexer.eachBlock 遍历激光范围内的建筑
-        Vars.indexer.eachBlock(null, b.x, b.y, b.fdata + 32f,
-            build -> build.team != b.team && build.health > 0,
+        // 检测建筑: 只查询激光线段经过的格子
+        BuildingLineQuery.each(b.team, b.x, b.y, ex, ey, 0f,
             build -> {
-                if (hit[0]) return;
+                if (hit[0] || build.health <= 0) return;
                 // 检查激光线段是否穿过建筑碰撞箱
                 Tmp.r1.setCentered(build.x, build.y, build.block.size * Vars.tilesize);
                 Vec2 hv = Geometry.raycastRect(b.x, b.y, ex, ey, Tmp.r1);
@@ -146,7 +146,7 @@ public class HealingConeBulletType extends BulletType {
                         building.damage(b.damage * buildingDamageMultiplier);
                     }
                 }
-            }, tile -> tile.block() != null && tile.block().absorbLasers && tile.team() != b.team, data);
+            }, b.team, data);
         }
     }
 
@@ -71,7 +71,7 @@ public class HealingNukeBulletType extends BulletType {
             } else {
                 building.damage(damage * b.damageMultiplier() * buildingDamageMultiplier);
             }
-        }, tile -> tile.block() != null && tile.block().absorbLasers && tile.team() != b.team);
+        }, b.team);
 
         // ★ 与 PU_V8 一致: 用 Units.nearby(rect, cons) 扫描圆内所有单位 (包括友军和敌军)
         Units.nearby(Tmp.r1.setCentered(b.x, b.y, radius * 2f), u -> {
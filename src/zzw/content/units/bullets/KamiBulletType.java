@@ -23,6 +23,8 @@ import mindustry.gen.Bullet;
  * - pierce=true, 不被防御塔拦截
  *
  * 简化: 使用 b.data (float[]) 存储 width/length/turn, 不使用自定义 Entity
+ * KamiAI 的弹幕模式不再创建 Bullet, 而是发射到 {@link zzw.content.units.KamiBullets};
+ * 此时本类型只提供伤害/碰撞尺寸/是否拖尾参数。
  *
  * 参考: PU132 unity/entities/bullet/kami/KamiBulletType.java
  */
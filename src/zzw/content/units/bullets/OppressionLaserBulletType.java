@@ -17,13 +17,14 @@ import arc.math.Mathf;
 import arc.math.geom.Rect;
 import arc.math.geom.Vec2;
 import arc.struct.FloatSeq;
+import arc.struct.Seq;
 import arc.math.Rand;
 import arc.util.Tmp;
 import arc.util.Time;
 import mindustry.Vars;
+import zzw.content.units.utils.BuildingLineQuery;
 import mindustry.entities.Units;
 import mindustry.gen.Bullet;
-import mindustry.gen.Groups;
 import mindustry.gen.Unit;
 import mindustry.graphics.Drawf;
 import mindustry.graphics.Layer;
@@ -44,6 +45,8 @@ public class OppressionLaserBulletType extends AntiCheatBulletTypeBase {
     private static final float[] ltmp = new float[25], ltmp2 = new float[25];
     private static final Rand rand = new Rand(), rand2 = new Rand();
     private static final FloatSeq lines = new FloatSeq();
+    /** 存活的压迫激光 (含所有子类型), 用于新激光发射时让同 owner 的旧激光脱节 */
+    private static final Seq<Bullet> lasers = new Seq<>(false, 16, Bullet.class);
     private static final Color[] lightningColors = {Color.white, Color.valueOf("f53036"), Color.black};
 
     protected float length = 2150f, width = 140f, cone = 380f, endLength = 450f;
@@ -122,15 +125,24 @@ public class OppressionLaserBulletType extends AntiCheatBulletTypeBase {
         }
         // ★ 激光跟随单位: 新激光创建时, 将同 owner 的旧激光标记为"脱节" (不再跟随)
         // 实现: 用 b.data 存储 follow 标志, 新激光设 true, 旧激光设 false
+        // 只遍历存活的压迫激光 (init/removed 维护), 不再扫描全部子弹
         if (b.owner instanceof Unit) {
             Unit owner = (Unit) b.owner;
-            Groups.bullet.each(bul -> bul != b
-                && bul.owner == owner
-                && bul.type instanceof OppressionLaserBulletType,
-                bul -> bul.data = false  // 旧激光脱节
-            );
+            for (int i = lasers.size - 1; i >= 0; i--) {
+                Bullet bul = lasers.items[i];
+                // 世界重载时子弹直接清空, 不会调用 removed(); 对象池回收后可能已被复用为其他子弹
+                if (bul == b || !bul.isAdded() || !(bul.type instanceof OppressionLaserBulletType)) lasers.remove(i);
+                else if (bul.owner == owner) bul.data = false;  // 旧激光脱节
+            }
         }
         b.data = true;  // 新激光跟随
+        lasers.add(b);
+    }
+
+    @Override
+    public void removed(Bullet b) {
+        super.removed(b);
+        lasers.remove(b, true);
     }
 
     @Override
@@ -178,9 +190,9 @@ public class OppressionLaserBulletType extends AntiCheatBulletTypeBase {
             });
 
             // 建筑检测
-            Vars.indexer.eachBlock(null, b.x, b.y, length + endLength,
-                    build -> build.team != b.team && build.health > 0,
+            BuildingLineQuery.each(b.team, b.x, b.y, ex, ey, w,
                     build -> {
+                        if (build.health <= 0) return;
                         Vec2 nearest = arc.math.geom.Intersector.nearestSegmentPoint(b.x, b.y, ex, ey, build.x, build.y, Tmp.v2);
                         float dst = b.dst(nearest);
                         float cw = getWidthCollision(dst, w);
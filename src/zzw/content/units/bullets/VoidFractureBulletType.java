@@ -13,6 +13,7 @@ import arc.struct.IntSet;
 import arc.util.Tmp;
 import arc.audio.Sound;
 import mindustry.Vars;
+import zzw.content.units.utils.BuildingLineQuery;
 import mindustry.content.Fx;
 import mindustry.entities.Effect;
 import mindustry.entities.Units;
@@ -212,9 +213,8 @@ public class VoidFractureBulletType extends AntiCheatBulletTypeBase {
                 }
             }
         });
-        // 检测建筑
-        Vars.indexer.allBuildings(cx, cy, radius, build -> {
-            if (build.team == b.team) return;
+        // 检测建筑: 只查询线段经过的格子
+        BuildingLineQuery.each(b.team, x1, y1, x2, y2, 0f, build -> {
             float r = build.block.size * Vars.tilesize / 2f;
             if (Intersector.distanceSegmentPoint(x1, y1, x2, y2, build.x(), build.y()) <= r) {
                 if (data.collided.add(build.id())) {
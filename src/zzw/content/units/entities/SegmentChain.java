@@ -0,0 +1,135 @@
+package zzw.content.units.entities;
+
+import arc.math.Angles;
+import arc.math.Mathf;
+
+import java.util.Arrays;
+
+/**
+ * 分段虫子的段身物理状态 (位置/速度/朝向按段连续存放的 float 数组)
+ *
+ * 替代原先的 Vec2[] segPositions / segVelocities + float[] segRotations:
+ * - 容量不足时成倍扩容, 增加段身不再每次重新分配全部数组
+ * - 分裂/合并/移除按下标区间原地搬移 ({@link #moveTo} / {@link #copy})
+ * - 速度传播 ({@link #propagate}) 只读写本对象的数组和传入的参数, 没有共享的临时向量,
+ *   多条虫子可以在同一次循环里依次求解
+ *
+ * 下标与 SegmentWormEntity.segments 一一对应。
+ */
+public class SegmentChain {
+    public int size;
+    public float[] x, y, vx, vy, rot;
+
+    public SegmentChain() {
+        this(8);
+    }
+
+    public SegmentChain(int capacity) {
+        capacity = Math.max(capacity, 1);
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        rot = new float[capacity];
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length) return;
+        int cap = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, cap);
+        y = Arrays.copyOf(y, cap);
+        vx = Arrays.copyOf(vx, cap);
+        vy = Arrays.copyOf(vy, cap);
+        rot = Arrays.copyOf(rot, cap);
+    }
+
+    /** 在尾部追加一段 */
+    public void add(float px, float py, float pvx, float pvy, float prot) {
+        ensureCapacity(size + 1);
+        int i = size++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        rot[i] = prot;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** 只保留前 length 段 */
+    public void truncate(int length) {
+        size = Math.min(size, Math.max(length, 0));
+    }
+
+    /** 把第 from 段的状态复制到第 to 段 (原地压缩用) */
+    public void copy(int from, int to) {
+        if (from == to) return;
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        rot[to] = rot[from];
+    }
+
+    /** 把 [from, size) 段追加到 dst 尾部, 本链截断为 from 段 (分裂: 新链; 合并: 对方链, from = 0) */
+    public void moveTo(int from, SegmentChain dst) {
+        int n = size - from;
+        if (n <= 0) return;
+        dst.ensureCapacity(dst.size + n);
+        System.arraycopy(x, from, dst.x, dst.size, n);
+        System.arraycopy(y, from, dst.y, dst.size, n);
+        System.arraycopy(vx, from, dst.vx, dst.size, n);
+        System.arraycopy(vy, from, dst.vy, dst.size, n);
+        System.arraycopy(rot, from, dst.rot, dst.size, n);
+        dst.size += n;
+        size = from;
+    }
+
+    /**
+     * 速度传播 (PU132 WormDefaultUnit.updateSegmentVLocal):
+     * 每段速度大小 = max(前一段速度, 自身速度, 头部 3 帧平均速度), 方向指向前一段 (第 0 段指向头部)
+     * @param headVel 第 0 段继承的头部速度大小 (上一帧速度)
+     * @param avgVel 头部 3 帧平均速度的大小
+     * @param maxSpeed 每段速度上限 (type.speed)
+     * @param dragScl 速度衰减系数 clamp(1 - drag * delta)
+     */
+    public void propagate(float headX, float headY, float headVel, float avgVel, float maxSpeed, float dragScl) {
+        float prevX = headX, prevY = headY, prevVel = headVel;
+        float max2 = maxSpeed * maxSpeed;
+        for (int i = 0; i < size; i++) {
+            float sx = x[i], sy = y[i];
+            float svx = vx[i], svy = vy[i];
+
+            float len2 = svx * svx + svy * svy;
+            if (len2 > max2) {
+                float scl = maxSpeed / (float) Math.sqrt(len2);
+                svx *= scl;
+                svy *= scl;
+                len2 = max2;
+            }
+
+            float angle = Angles.angle(sx, sy, prevX, prevY);
+            float trueVel = Math.max(Math.max(prevVel, (float) Math.sqrt(len2)), avgVel);
+            svx += Mathf.cosDeg(angle) * trueVel;
+            svy += Mathf.sinDeg(angle) * trueVel;
+
+            //setLength: 零向量保持为零
+            float nlen2 = svx * svx + svy * svy;
+            if (nlen2 != 0f) {
+                float scl = trueVel / (float) Math.sqrt(nlen2);
+                svx *= scl;
+                svy *= scl;
+            }
+
+            svx *= dragScl;
+            svy *= dragScl;
+            vx[i] = svx;
+            vy[i] = svy;
+            prevVel = (float) Math.sqrt(svx * svx + svy * svy);
+            prevX = sx;
+            prevY = sy;
+        }
+    }
+}
@@ -136,16 +136,9 @@ public class SegmentWormEntity extends UnitEntity {
 
     /** 段身列表 (顺序: 头部后方第一段到最后一段) */
     public SegmentUnitEntity[] segments = new SegmentUnitEntity[0];
-    /** 段身位置缓存 (PU132 segments[], 用于物理模拟) */
-    protected Vec2[] segPositions;
-    /** 段身速度 (PU132 segmentVelocities[], 让段身有惯性) */
-    protected Vec2[] segVelocities;
-    /** 段身朝向 (PU132 segmentUnits[i].rotation, 每段独立朝向, 用于约束算法) */
-    protected float[] segRotations;
-    /** 头部移动轨迹点 (段身延迟跟随用, PU132 老式延迟跟随模式)
-     *  长度 = 段数 * 8, 环形数组, pathIndex 是当前写入位置 */
-    protected Vec2[] pathPoints;
-    protected int pathIndex = 0;
+    /** 段身物理状态 (PU132 segments[] / segmentVelocities[] / segmentUnits[i].rotation),
+     *  位置/速度/朝向按段存放在 float 数组中, 下标与 segments 一致 */
+    protected SegmentChain chain = new SegmentChain();
     /** 段身朝向相对父段的最大角度差 (度, PU132 angleLimit)
      *  调小 = 段身更硬 (转向幅度小), 调大 = 段身更软 (转向幅度大)
      *  PU132 原版默认 30f */
@@ -473,17 +466,8 @@ public class SegmentWormEntity extends UnitEntity {
             }
         }
 
-        // 初始化位置/速度/朝向数组
-        if (segPositions == null || segPositions.length != segments.length) {
-            segPositions = new Vec2[segments.length];
-            segVelocities = new Vec2[segments.length];
-            segRotations = new float[segments.length];
-            for (int i = 0; i < segments.length; i++) {
-                segPositions[i] = new Vec2(x, y);
-                segVelocities[i] = new Vec2();
-                segRotations[i] = rotation;
-            }
-        }
+        // 物理状态与段身列表一致 (兜底)
+        syncChain();
 
         // ★★★ PU132 原版段身跟随算法 ★★★
         // 核心流程:
@@ -538,6 +522,16 @@ public class SegmentWormEntity extends UnitEntity {
         }
     }
 
+    /** 物理状态与段身列表不一致时 (兜底), 按段身实体重新初始化 */
+    protected void syncChain() {
+        if (chain.size == segments.length) return;
+        chain.clear();
+        for (SegmentUnitEntity seg : segments) {
+            if (seg == null) chain.add(x, y, 0f, 0f, rotation);
+            else chain.add(seg.x, seg.y, 0f, 0f, seg.rotation);
+        }
+    }
+
     /** 是否可再生 (PU132 WormDefaultUnit.regenAvailable L97-99)
      *  需 regenTime > 0, 段数未达上限 */
     public boolean regenAvailable() {
@@ -548,25 +542,12 @@ public class SegmentWormEntity extends UnitEntity {
      *  在尾部追加一个新段身, 扩展所有数组 */
     public void addSegment() {
         if (segments.length <= 0) return;
+        syncChain();
         int oldLen = segments.length;
-        int newLen = oldLen + 1;
 
         SegmentUnitEntity[] oldSegs = segments;
-        Vec2[] oldPos = segPositions;
-        Vec2[] oldVel = segVelocities;
-        float[] oldRot = segRotations;
-
-        segments = new SegmentUnitEntity[newLen];
-        segPositions = new Vec2[newLen];
-        segVelocities = new Vec2[newLen];
-        segRotations = new float[newLen];
-
-        for (int i = 0; i < oldLen; i++) {
-            segments[i] = oldSegs[i];
-            segPositions[i] = oldPos[i];
-            segVelocities[i] = oldVel[i];
-            segRotations[i] = oldRot[i];
-        }
+        segments = new SegmentUnitEntity[oldLen + 1];
+        System.arraycopy(oldSegs, 0, segments, 0, oldLen);
 
         if (segments[oldLen - 1] != null) {
             segments[oldLen - 1].isTail = false;
@@ -575,12 +556,13 @@ public class SegmentWormEntity extends UnitEntity {
         mindustry.type.UnitType segType = segments[oldLen - 1] != null ? segments[oldLen - 1].type : defaultSegmentType;
         SegmentUnitEntity newSeg = (SegmentUnitEntity) segType.create(team);
 
-        Vec2 oldTailPos = oldPos[oldLen - 1];
-        float oldTailRot = oldRot[oldLen - 1];
-        Vec2 newPos = new Vec2();
-        newPos.trns(oldTailRot + 180f, segmentSpacing).add(oldTailPos);
+        // 新段身接在旧尾部后方 segmentSpacing 处, 继承尾部速度和朝向
+        int tail = oldLen - 1;
+        float oldTailRot = chain.rot[tail];
+        float nx = chain.x[tail] + Angles.trnsx(oldTailRot + 180f, segmentSpacing);
+        float ny = chain.y[tail] + Angles.trnsy(oldTailRot + 180f, segmentSpacing);
 
-        newSeg.set(newPos.x, newPos.y);
+        newSeg.set(nx, ny);
         newSeg.rotation = oldTailRot;
         newSeg.head = this;
         newSeg.segmentIndex = oldLen;
@@ -592,9 +574,7 @@ public class SegmentWormEntity extends UnitEntity {
         newSeg.dead = false;
         newSeg.add();
 
-        segPositions[oldLen] = newPos;
-        segVelocities[oldLen] = new Vec2(segVelocities[oldLen - 1]);
-        segRotations[oldLen] = oldTailRot;
+        chain.add(nx, ny, chain.vx[tail], chain.vy[tail], oldTailRot);
         segments[oldLen] = newSeg;
     }
 
@@ -782,38 +762,14 @@ public class SegmentWormEntity extends UnitEntity {
      * 方向 = 段身 → 前一段 (跟在头部后面)
      */
     protected void updateSegmentVLocal(Vec2 vec) {
-        int len = segments.length;
-        for (int i = 0; i < len; i++) {
-            Vec2 seg = segPositions[i];
-            Vec2 segV = segVelocities[i];
-            segV.limit(type.speed);
-
-            // 方向: 段身指向前一段 (i=0 时指向头部)
-            float angleB = i != 0
-                ? Angles.angle(seg.x, seg.y, segPositions[i - 1].x, segPositions[i - 1].y)
-                : Angles.angle(seg.x, seg.y, x, y);
-            // 速度大小: 取前一段速度 (i=0 时取头部上一帧速度)
-            float velocity = i != 0 ? segVelocities[i - 1].len() : vec.len();
-
-            // 头部 3 帧速度平均
-            Tmp.v1.set(vel).add(vec).add(lastVelocityD).scl(1f / 3f);
-
-            // 真实速度 = 三者最大值
-            float trueVel = Math.max(Math.max(velocity, segV.len()), Tmp.v1.len());
-            Tmp.v1.trns(angleB, trueVel);
-            segV.add(Tmp.v1);
-            segV.setLength(trueVel);
-
-            // ★ 不同步到段身实体 vel
-            // 原因: VelComp.update() 会根据 vel 移动段身位置,
-            //   然后 updateSegmentsLocal 又重置位置, 造成每帧抖动
-            // segVelocities 是内部物理模拟用的, 段身实体 vel 保持为零
-            // segments[i].vel.set(segV);
-
-            // ★ 速度衰减 (PU132 WormDefaultUnit.updateSegmentsLocal L142/L160)
-            //   防止 segVelocities 无限增长导致抖动
-            segV.scl(Mathf.clamp(1f - (segmentDrag * arc.util.Time.delta)));
-        }
+        // 头部 3 帧速度平均
+        float ax = (vel.x + vec.x + lastVelocityD.x) / 3f, ay = (vel.y + vec.y + lastVelocityD.y) / 3f;
+        // ★ 只更新内部物理速度, 不同步到段身实体 vel
+        // 原因: VelComp.update() 会根据 vel 移动段身位置,
+        //   然后 updateSegmentsLocal 又重置位置, 造成每帧抖动
+        // ★ 速度衰减 (PU132 WormDefaultUnit.updateSegmentsLocal L142/L160): 防止速度无限增长导致抖动
+        chain.propagate(x, y, vec.len(), Mathf.len(ax, ay), type.speed,
+            Mathf.clamp(1f - (segmentDrag * arc.util.Time.delta)));
     }
 
     /**
@@ -835,25 +791,28 @@ public class SegmentWormEntity extends UnitEntity {
         float segmentOffset = segmentSpacing / 2f;
         int len = segments.length;
         if (len == 0) return;
+        float[] px = chain.x, py = chain.y, pr = chain.rot;
+        float pull = Mathf.clamp(jointStrength * arc.util.Time.delta);
 
         // PU132: last = 头部, 从头部开始遍历
         Unit last = this;
 
         for (int i = 0; i < len; i++) {
-            Vec2 seg = segPositions[i];
             SegmentUnitEntity segU = segments[i];
 
             // ★ Step 1: 计算理想位置 (上一段后方 segmentOffset + offset 处)
             float offset = (last == this) ? headOffset : 0f;
-            Tmp.v1.trns(last.rotation + 180f, segmentOffset + offset).add(last);
+            float tx = last.x + Angles.trnsx(last.rotation + 180f, segmentOffset + offset);
+            float ty = last.y + Angles.trnsy(last.rotation + 180f, segmentOffset + offset);
 
             // ★ Step 2: 计算 angTo (段身指向理想位置的角度)
             // PU132: preventDrifting 且静止时用自身朝向
             float rdx = segU.deltaX - last.deltaX;
             float rdy = segU.deltaY - last.deltaY;
+            float lastDelta = last.deltaLen();
             float angTo;
-            if (!preventDrifting || (last.deltaLen() > 0.001f && (rdx * rdx) + (rdy * rdy) > 0.00001f)) {
-                angTo = Angles.angle(segU.x, segU.y, Tmp.v1.x, Tmp.v1.y);
+            if (!preventDrifting || (lastDelta > 0.001f && (rdx * rdx) + (rdy * rdy) > 0.00001f)) {
+                angTo = Angles.angle(segU.x, segU.y, tx, ty);
             } else {
                 angTo = segU.rotation;
             }
@@ -861,32 +820,32 @@ public class SegmentWormEntity extends UnitEntity {
             // ★ Step 3: 角度平滑 (PU132 原版公式)
             // rotation = angTo - (差值 * (1 - anglePhysicsSmooth))
             float angleDiff = angleDistSigned(angTo, last.rotation, angleLimit);
-            segU.rotation = angTo - (angleDiff * (1f - anglePhysicsSmooth));
+            float r = segU.rotation = angTo - (angleDiff * (1f - anglePhysicsSmooth));
+            float cos = Mathf.cosDeg(r), sin = Mathf.sinDeg(r);
 
             // ★ Step 4: 段身沿自身朝向移动 = 上一段的 deltaLen (PU132 原版)
-            Tmp.v3.trns(segU.rotation, last.deltaLen());
-            segU.trns(Tmp.v3.x, Tmp.v3.y);
-            seg.set(segU.x, segU.y);
+            segU.trns(cos * lastDelta, sin * lastDelta);
 
             // ★ Step 5: 计算拉回向量 (PU132 原版)
-            Tmp.v2.trns(segU.rotation, segmentOffset).add(seg).sub(Tmp.v1);
-            Tmp.v2.scl(Mathf.clamp(jointStrength * arc.util.Time.delta));
+            float jx = (cos * segmentOffset + segU.x - tx) * pull;
+            float jy = (sin * segmentOffset + segU.y - ty) * pull;
 
             // ★ Step 6: 拉回力传播到后面 segmentCast 段 (PU132 原版逻辑, 适配数组)
             // scl = cast / segmentCast → 越靠前力越大
-            int cast = segmentCast;
-            int idx = i;
-            while (cast > 0 && idx < len) {
-                float scl = cast / (float) segmentCast;
-                segments[idx].set(segments[idx].x - (Tmp.v2.x * scl), segments[idx].y - (Tmp.v2.y * scl));
-                segments[idx].updateLastPosition();
-                segPositions[idx].set(segments[idx].x, segments[idx].y);
-                idx++;
-                cast--;
+            int end = Math.min(i + segmentCast, len);
+            for (int idx = i; idx < end; idx++) {
+                float scl = (segmentCast - (idx - i)) / (float) segmentCast;
+                SegmentUnitEntity s = segments[idx];
+                s.set(s.x - (jx * scl), s.y - (jy * scl));
+                s.updateLastPosition();
+                px[idx] = s.x;
+                py[idx] = s.y;
             }
 
-            // ★ Step 7: 同步到 Vec2 位置 (用于 draw 等)
-            seg.set(segU.x, segU.y);
+            // ★ Step 7: 同步到物理状态 (用于下一帧速度传播、增加段身等)
+            px[i] = segU.x;
+            py[i] = segU.y;
+            pr[i] = r;
 
             // 血量分布
             if (healthDistributionRate > 0) distributeHealth(i);
@@ -975,26 +934,19 @@ public class SegmentWormEntity extends UnitEntity {
             if (segments[i] == seg) { deadIdx = i; break; }
         }
         if (deadIdx < 0) return;
+        syncChain();
 
         // ★ 分裂: 中间段身死亡, 后半段创建为新虫子 (PU132 splittable)
         if (splittable && deadIdx < segments.length - 1) {
             // 后半段段身 [deadIdx+1, end)
             int tailLen = segments.length - deadIdx - 1;
             SegmentUnitEntity[] tailSegs = new SegmentUnitEntity[tailLen];
-            Vec2[] tailPos = new Vec2[tailLen];
-            Vec2[] tailVel = new Vec2[tailLen];
-            float[] tailRot = new float[tailLen];
-            for (int i = 0; i < tailLen; i++) {
-                tailSegs[i] = segments[deadIdx + 1 + i];
-                tailPos[i] = segPositions[deadIdx + 1 + i];
-                tailVel[i] = segVelocities[deadIdx + 1 + i];
-                tailRot[i] = segRotations[deadIdx + 1 + i];
-            }
+            System.arraycopy(segments, deadIdx + 1, tailSegs, 0, tailLen);
             // 创建新头部 (与原头部同类型)
             try {
                 SegmentWormEntity newHead = (SegmentWormEntity) type.create(team);
                 newHead.set(tailSegs[0].x, tailSegs[0].y);
-                newHead.rotation = tailRot[0];
+                newHead.rotation = chain.rot[deadIdx + 1];
                 newHead.segmentsCreated = true;  // 跳过自动创建段身
                 newHead.splittable = true;
                 newHead.chainable = chainable;
@@ -1003,11 +955,9 @@ public class SegmentWormEntity extends UnitEntity {
                 newHead.maxSegments = maxSegments;
                 newHead.wobbleEnabled = wobbleEnabled;
                 newHead.add();
-                // 转移后半段段身给新头部
+                // 转移后半段段身给新头部 (物理状态按区间搬到新头部的链上)
                 newHead.segments = tailSegs;
-                newHead.segPositions = tailPos;
-                newHead.segVelocities = tailVel;
-                newHead.segRotations = tailRot;
+                chain.moveTo(deadIdx + 1, newHead.chain);
                 for (int i = 0; i < tailLen; i++) {
                     tailSegs[i].head = newHead;
                     tailSegs[i].segmentIndex = i;
@@ -1024,49 +974,26 @@ public class SegmentWormEntity extends UnitEntity {
         }
 
         // 从当前头部列表中移除死段及后半段 (分裂时后半段已转移给新头部)
-        int newLen = splittable ? deadIdx : 0;
-        if (!splittable) {
-            // 非分裂模式: 保留所有存活段身
-            for (SegmentUnitEntity s : segments) {
-                if (s != null && s != seg && s.isAdded()) newLen++;
-            }
+        // 分裂模式: 只保留死段之前的段身 [0, deadIdx); 非分裂模式: 保留所有存活段身
+        int limit = splittable ? deadIdx : segments.length;
+        int newLen = 0;
+        for (int i = 0; i < limit; i++) {
+            if (segments[i] != null && segments[i] != seg && segments[i].isAdded()) newLen++;
         }
         SegmentUnitEntity[] newSegs = new SegmentUnitEntity[newLen];
-        Vec2[] newPos = new Vec2[newLen];
-        Vec2[] newVel = new Vec2[newLen];
-        float[] newRot = new float[newLen];
         int idx = 0;
-        if (splittable) {
-            // 分裂模式: 只保留死段之前的段身 [0, deadIdx)
-            for (int i = 0; i < deadIdx; i++) {
-                if (segments[i] != null && segments[i].isAdded()) {
-                    newSegs[idx] = segments[i];
-                    newPos[idx] = segPositions[i];
-                    newVel[idx] = segVelocities[i];
-                    newRot[idx] = segRotations[i];
-                    newSegs[idx].segmentIndex = idx;
-                    newSegs[idx].isTail = (idx == newLen - 1);
-                    idx++;
-                }
-            }
-        } else {
-            // 非分裂模式: 保留所有存活段身
-            for (int i = 0; i < segments.length; i++) {
-                if (segments[i] != null && segments[i] != seg && segments[i].isAdded()) {
-                    newSegs[idx] = segments[i];
-                    newPos[idx] = segPositions[i];
-                    newVel[idx] = segVelocities[i];
-                    newRot[idx] = segRotations[i];
-                    newSegs[idx].segmentIndex = idx;
-                    newSegs[idx].isTail = (idx == newLen - 1);
-                    idx++;
-                }
+        for (int i = 0; i < limit; i++) {
+            if (segments[i] != null && segments[i] != seg && segments[i].isAdded()) {
+                newSegs[idx] = segments[i];
+                newSegs[idx].segmentIndex = idx;
+                newSegs[idx].isTail = (idx == newLen - 1);
+                // 物理状态原地前移
+                chain.copy(i, idx);
+                idx++;
             }
         }
+        chain.truncate(newLen);
         segments = newSegs;
-        segPositions = newPos;
-        segVelocities = newVel;
-        segRotations = newRot;
     }
 
     /**
@@ -1100,29 +1027,18 @@ public class SegmentWormEntity extends UnitEntity {
      * 合并后 other 头部移除 (段身全部转移给 this)
      */
     public void mergeFrom(SegmentWormEntity other) {
+        syncChain();
+        other.syncChain();
         int myLen = segments.length;
         int otherLen = other.segments.length;
         int newLen = myLen + otherLen;
 
         SegmentUnitEntity[] newSegs = new SegmentUnitEntity[newLen];
-        Vec2[] newPos = new Vec2[newLen];
-        Vec2[] newVel = new Vec2[newLen];
-        float[] newRot = new float[newLen];
-
-        // 复制自己的段身
-        for (int i = 0; i < myLen; i++) {
-            newSegs[i] = segments[i];
-            newPos[i] = segPositions[i];
-            newVel[i] = segVelocities[i];
-            newRot[i] = segRotations[i];
-        }
+        System.arraycopy(segments, 0, newSegs, 0, myLen);
         // 追加 other 的段身
         for (int i = 0; i < otherLen; i++) {
             SegmentUnitEntity s = other.segments[i];
             newSegs[myLen + i] = s;
-            newPos[myLen + i] = other.segPositions[i];
-            newVel[myLen + i] = other.segVelocities[i];
-            newRot[myLen + i] = other.segRotations[i];
             s.head = this;  // 段身归属改为 this
             s.segmentIndex = myLen + i;
             s.isTail = (myLen + i == newLen - 1);  // 最后一节是尾部
@@ -1132,15 +1048,11 @@ public class SegmentWormEntity extends UnitEntity {
             newSegs[myLen - 1].isTail = false;
         }
         segments = newSegs;
-        segPositions = newPos;
-        segVelocities = newVel;
-        segRotations = newRot;
+        // other 的物理状态整段追加到自己的链尾
+        other.chain.moveTo(0, chain);
 
         // 移除 other 头部 (段身已转移, other 不再持有段身)
         other.segments = new SegmentUnitEntity[0];
-        other.segPositions = null;
-        other.segVelocities = null;
-        other.segRotations = null;
         other.remove();
 
         // 播放合并音效
@@ -1150,15 +1062,8 @@ public class SegmentWormEntity extends UnitEntity {
     /** 创建段身 (在 add() 时调用一次) */
     public void createSegments(int count, mindustry.type.UnitType segmentType) {
         segments = new SegmentUnitEntity[count];
-        segPositions = new Vec2[count];
-        segVelocities = new Vec2[count];
-        segRotations = new float[count];
-        
-        // 初始化路径点数组: 长度 = 段数 * 8 (足够所有段身延迟跟随)
-        pathPoints = new Vec2[count * 8];
-        for (int i = 0; i < pathPoints.length; i++) {
-            pathPoints[i] = new Vec2(x, y);
-        }
+        chain.clear();
+        chain.ensureCapacity(count);
 
         // ★ PU132 原版做法: 段身初始展开成扇形 (WormComp.add L454-468)
         //   每段角度 = rotation + angleLimit + i * angleLimit
@@ -1184,9 +1089,7 @@ public class SegmentWormEntity extends UnitEntity {
             seg.add();
 
             segments[i] = seg;
-            segPositions[i] = new Vec2(seg.x, seg.y);
-            segVelocities[i] = new Vec2();
-            segRotations[i] = angle;
+            chain.add(seg.x, seg.y, 0f, 0f, angle);
 
             // 计算下一段的位置 (PU132 原版逻辑)
             rot[0] += angleLimit;
@@ -3,6 +3,7 @@ package zzw.content.units.entities;
 import zzw.content.units.ZEntityRegister;
 import zzw.content.units.effects.SlowLightningType;
 import zzw.content.units.utils.SlowLightningUtils;
+import zzw.content.units.utils.TileRaycast;
 
 import arc.func.Floatp;
 import arc.graphics.g2d.Draw;
@@ -298,10 +299,8 @@ public class SlowLightningEntity implements Drawc {
             float nl = type.randomNodeLength();
             Vec2 v2 = Tmp.v2.set(node == null ? this : node);
             Vec2 v = Tmp.v1.trns(rr, Math.min(nl, type.range - nl)).add(v2);
-            float l = SlowLightningUtils.findLaserLength(v2.x, v2.y, v.x, v.y, tile -> {
-                collided |= (tile.team() != team && tile.block() != null && tile.block().absorbLasers);
-                return collided;
-            });
+            float l = SlowLightningUtils.findLaserLength(v2.x, v2.y, v.x, v.y, team);
+            collided = TileRaycast.hitX >= 0;
             if (l < type.nodeTime) {
                 v.sub(v2).scl(l / nl).add(v2);
             }
@@ -4,6 +4,7 @@ import zzw.content.units.ZEntityRegister;
 import zzw.content.type.WorldUnitType;
 
 import arc.Core;
+import arc.func.Cons;
 import arc.math.geom.Point2;
 import arc.math.geom.Rect;
 import arc.math.geom.Vec2;
@@ -45,6 +46,7 @@ import mindustry.world.blocks.defense.turrets.Turret.TurretBuild;
 import mindustry.world.blocks.power.PowerNode.PowerNodeBuild;
 import mindustry.world.blocks.storage.CoreBlock.CoreBuild;
 import zzw.content.blocks.units.TerraCore;
+import zzw.content.units.utils.BulletIndex;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -230,24 +232,26 @@ public class WorldUnitEntity extends UnitEntity {
      * <p>子弹是独立实体, 生成后位置固定; 蓄力激光 (LaserBulletType 等长寿命子弹)
      * 会一直停留在发射位置 —— 单位移动时看起来"激光留在原地"。
      * 这里按上一帧位置差计算 delta, 对归属子弹做平移 + 绕单位中心旋转。</p>
-     * <p>归属判断: bullet.owner 是本单位的子世界建筑 (buildingIds 集合 O(1) 查询)。</p>
+     * <p>归属判断: 逐个子世界建筑从 {@link BulletIndex} 取其子弹, 不再遍历全部子弹。
+     * 本次更新中刚发射的子弹 (不在索引快照中) 从下一次更新开始跟随。</p>
      */
     protected void followBullets() {
         float dx = x - lastX, dy = y - lastY;
         float dr = rotation - lastRotation;
 
-        if ((dx != 0f || dy != 0f || dr != 0f) && buildingIds.size > 0) {
-            for (Bullet blt : Groups.bullet) {
-                if (blt.owner instanceof Building ob && buildingIds.contains(ob.id)) {
-                    if (dr != 0f) {
-                        // 绕单位中心旋转 (与子世界渲染投影公式一致)
-                        Tmp.v1.set(blt.x, blt.y).sub(this).rotate(dr).add(this);
-                        blt.set(Tmp.v1.x, Tmp.v1.y);
-                        blt.rotation(blt.rotation() + dr);
-                    } else {
-                        blt.set(blt.x + dx, blt.y + dy);
-                    }
+        if ((dx != 0f || dy != 0f || dr != 0f) && buildings.size > 0) {
+            Cons<Bullet> follow = blt -> {
+                if (dr != 0f) {
+                    // 绕单位中心旋转 (与子世界渲染投影公式一致)
+                    Tmp.v1.set(blt.x, blt.y).sub(this).rotate(dr).add(this);
+                    blt.set(Tmp.v1.x, Tmp.v1.y);
+                    blt.rotation(blt.rotation() + dr);
+                } else {
+                    blt.set(blt.x + dx, blt.y + dy);
                 }
+            };
+            for (int i = 0; i < buildings.size; i++) {
+                BulletIndex.each(buildings.get(i).id, follow);
             }
         }
         lastX = x;
@@ -9,9 +9,12 @@ import arc.math.Mathf;
 import arc.math.geom.Rect;
 import arc.math.geom.Vec2;
 import arc.struct.IntSet;
+import mindustry.game.Team;
 import mindustry.gen.Building;
 import mindustry.world.Tile;
 
+import zzw.content.units.utils.TileRaycast;
+
 import static mindustry.Vars.world;
 import static mindustry.Vars.indexer;
 import static mindustry.Vars.tilesize;
@@ -25,6 +28,7 @@ import static mindustry.Vars.tilesize;
  * - angleDist: 绝对角度差 (0 ~ 180)
  * - castCircle: 圆形射线扫描, 返回每个角度的最大可达距离, 并对圆内建筑回调
  * - castConeTile: 锥形射线扫描, 在锥形 tile 范围内回调建筑
+ * (射线遍历使用 TileRaycast, 不会漏掉对角穿过的格子)
  *
  * 参考: PU_V8 main/src/unity/util/Utils.java
  */
@@ -79,6 +83,17 @@ public final class UnityUtils {
      */
     public static float[] castCircle(float wx, float wy, float range, int rays,
                                       Boolf<Building> filter, Cons<Building> cons, Boolf<Tile> insulator) {
+        return castCircle(wx, wy, range, rays, filter, cons, insulator, null);
+    }
+
+    /** 同上, 障碍为其他队伍的 absorbLasers 方块 (射线结果按帧缓存, 见 TileRaycast.absorber) */
+    public static float[] castCircle(float wx, float wy, float range, int rays,
+                                      Boolf<Building> filter, Cons<Building> cons, Team team) {
+        return castCircle(wx, wy, range, rays, filter, cons, null, team);
+    }
+
+    private static float[] castCircle(float wx, float wy, float range, int rays,
+                                       Boolf<Building> filter, Cons<Building> cons, Boolf<Tile> insulator, Team team) {
         collidedBlocks.clear();
         float[] cast = new float[rays];
 
@@ -86,16 +101,9 @@ public final class UnityUtils {
             cast[i] = range;
             float ang = i * (360f / cast.length);
             tV.trns(ang, range).add(wx, wy);
-            final int s = i;
-            world.raycastEachWorld(wx, wy, tV.x, tV.y, (cx, cy) -> {
-                Tile t = world.tile(cx, cy);
-                if (t != null && t.block() != null && insulator.get(t)) {
-                    float dst = t.dst(wx, wy);
-                    cast[s] = dst;
-                    return true;
-                }
-                return false;
-            });
+            if (cast(wx, wy, tV.x, tV.y, insulator, team)) {
+                cast[i] = Mathf.dst(wx, wy, TileRaycast.hitX * tilesize, TileRaycast.hitY * tilesize);
+            }
         }
 
         indexer.allBuildings(wx, wy, range, build -> {
@@ -128,6 +136,17 @@ public final class UnityUtils {
      */
     public static float[] castConeTile(float wx, float wy, float range, float angle, float cone,
                                         Cons2<Building, Tile> consBuilding, Boolf<Tile> insulator, float[] ref) {
+        return castConeTile(wx, wy, range, angle, cone, consBuilding, insulator, null, ref);
+    }
+
+    /** 同上, 障碍为其他队伍的 absorbLasers 方块 (射线结果按帧缓存, 见 TileRaycast.absorber) */
+    public static float[] castConeTile(float wx, float wy, float range, float angle, float cone,
+                                        Cons2<Building, Tile> consBuilding, Team team, float[] ref) {
+        return castConeTile(wx, wy, range, angle, cone, consBuilding, null, team, ref);
+    }
+
+    private static float[] castConeTile(float wx, float wy, float range, float angle, float cone,
+                                         Cons2<Building, Tile> consBuilding, Boolf<Tile> insulator, Team team, float[] ref) {
         collidedBlocks.clear();
         idx = 0;
         float expand = 3;
@@ -137,18 +156,13 @@ public final class UnityUtils {
             rectAlt.setCentered(tV.x, tV.y, expand);
             rect.merge(rectAlt);
         });
-        if (insulator != null) {
+        if (insulator != null || team != null) {
             shotgunRange(ref.length, cone, angle, con -> {
                 tV.trns(con, range).add(wx, wy);
                 ref[idx] = range * range;
-                world.raycastEachWorld(wx, wy, tV.x, tV.y, (x, y) -> {
-                    Tile tile = world.tile(x, y);
-                    if (tile != null && insulator.get(tile)) {
-                        ref[idx] = Mathf.dst2(wx, wy, x * tilesize, y * tilesize);
-                        return true;
-                    }
-                    return false;
-                });
+                if (cast(wx, wy, tV.x, tV.y, insulator, team)) {
+                    ref[idx] = Mathf.dst2(wx, wy, TileRaycast.hitX * tilesize, TileRaycast.hitY * tilesize);
+                }
                 idx++;
             });
         }
@@ -179,4 +193,10 @@ public final class UnityUtils {
         collidedBlocks.clear();
         return ref;
     }
+
+    /** 沿射线找第一个障碍格 (写入 TileRaycast.hitX/hitY); team 不为 null 时使用带缓存的 absorbLasers 判定 */
+    private static boolean cast(float x1, float y1, float x2, float y2, Boolf<Tile> insulator, Team team) {
+        float t = team != null ? TileRaycast.absorber(x1, y1, x2, y2, team) : TileRaycast.traverseTiles(x1, y1, x2, y2, insulator);
+        return t >= 0f;
+    }
 }
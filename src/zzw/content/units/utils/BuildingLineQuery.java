@@ -0,0 +1,89 @@
+package zzw.content.units.utils;
+
+import arc.func.Cons;
+import arc.math.geom.Intersector;
+import arc.struct.IntSet;
+import arc.struct.Seq;
+import mindustry.game.Team;
+import mindustry.gen.Building;
+import mindustry.world.Tile;
+
+import static mindustry.Vars.tilesize;
+import static mindustry.Vars.world;
+
+/**
+ * 线段 - 建筑宽相位查询 (激光/闪电的建筑碰撞)
+ * <p>
+ * 原先的做法是遍历敌方队伍的全部建筑 (state.teams.present → data.buildings) 或以线段中点为圆心的整圆范围,
+ * 代价与建筑总数或线段长度的平方成正比。这里直接使用世界的格子网格 (本身就是随建筑放置/拆除维护的均匀网格):
+ * 逐行扫描线段外扩 width 后覆盖的格子, 收集其中的建筑并去重, 代价只与线段经过的格子数成正比。
+ * <p>
+ * 返回的是候选建筑: 占地范围到线段的距离不超过 width 的建筑 (可能略多), 调用方仍需做精确判定。
+ */
+public class BuildingLineQuery {
+    static final IntSet seen = new IntSet();
+    static final Seq<Seq<Building>> buffers = new Seq<>();
+    /** 嵌套调用深度 (回调中再次查询时使用新的缓冲区) */
+    static int depth;
+
+    /**
+     * 遍历占地范围与线段 (x1,y1)→(x2,y2) 距离不超过 width 且不属于 team 的建筑, 每个建筑只回调一次。
+     * 先收集再回调, 回调中可以安全地伤害/摧毁建筑或发起新的查询。
+     * @param team 要排除的队伍 (通常为子弹所属队伍), null 表示不排除
+     */
+    public static void each(Team team, float x1, float y1, float x2, float y2, float width, Cons<Building> cons) {
+        if (depth >= buffers.size) buffers.add(new Seq<>(false, 16, Building.class));
+        Seq<Building> hits = buffers.get(depth);
+        hits.clear();
+        collect(team, x1, y1, x2, y2, Math.max(width, 0f), hits);
+
+        depth++;
+        try {
+            for (int i = 0; i < hits.size; i++) {
+                cons.get(hits.items[i]);
+            }
+        } finally {
+            depth--;
+            hits.clear();
+        }
+    }
+
+    static void collect(Team team, float x1, float y1, float x2, float y2, float width, Seq<Building> out) {
+        seen.clear();
+        //格子中心到线段的距离不超过 width + tilesize 时, 该格一定覆盖了所有满足条件的建筑的至少一格
+        float r = width + tilesize;
+        int minY = Math.max(0, toTile(Math.min(y1, y2) - r));
+        int maxY = Math.min(world.height() - 1, toTile(Math.max(y1, y2) + r));
+        float dy = y2 - y1;
+
+        for (int ty = minY; ty <= maxY; ty++) {
+            //线段在水平带 [cy - r, cy + r] 内的部分, 其 x 范围再外扩 r 即为这一行需要扫描的格子
+            float cy = ty * tilesize, lo = cy - r, hi = cy + r;
+            float t0 = 0f, t1 = 1f;
+            if (Math.abs(dy) < 0.0001f) {
+                if (y1 < lo || y1 > hi) continue;
+            } else {
+                float ta = (lo - y1) / dy, tb = (hi - y1) / dy;
+                t0 = Math.max(t0, Math.min(ta, tb));
+                t1 = Math.min(t1, Math.max(ta, tb));
+                if (t0 > t1) continue;
+            }
+            float xa = x1 + (x2 - x1) * t0, xb = x1 + (x2 - x1) * t1;
+            int minX = Math.max(0, toTile(Math.min(xa, xb) - r));
+            int maxX = Math.min(world.width() - 1, toTile(Math.max(xa, xb) + r));
+
+            for (int tx = minX; tx <= maxX; tx++) {
+                Tile tile = world.tile(tx, ty);
+                Building b = tile == null ? null : tile.build;
+                if (b == null || b.team == team || seen.contains(b.id)) continue;
+                if (Intersector.distanceSegmentPoint(x1, y1, x2, y2, tile.worldx(), tile.worldy()) > r) continue;
+                seen.add(b.id);
+                out.add(b);
+            }
+        }
+    }
+
+    static int toTile(float coord) {
+        return (int) Math.floor(coord / tilesize + 0.5f);
+    }
+}
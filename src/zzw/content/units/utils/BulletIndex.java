@@ -0,0 +1,140 @@
+package zzw.content.units.utils;
+
+import arc.func.Boolf;
+import arc.func.Cons;
+import arc.math.Mathf;
+import mindustry.game.Team;
+import mindustry.gen.Bullet;
+import mindustry.gen.Entityc;
+import mindustry.gen.Groups;
+
+import java.util.Arrays;
+
+import static mindustry.Vars.state;
+
+/**
+ * 子弹索引 - 按归属者 (owner) 与空间格子查询子弹
+ * <p>
+ * 原先世界单位的子弹跟随、点防武器索敌都是每次遍历 Groups.bullet 全部子弹。
+ * 原版子弹没有全局的创建/移除回调, 这里在每次逻辑更新 ({@link mindustry.core.GameState#updateId})
+ * 第一次查询时遍历一次 Groups.bullet 建立索引, 本次更新内的所有查询共用:
+ * <ul>
+ *   <li>归属者链表: owner 的实体 id 散列到桶, 查询代价与该 owner 的子弹数成正比</li>
+ *   <li>空间格子: 只收录 hittable 的子弹, 查询代价与范围内的子弹数成正比</li>
+ * </ul>
+ * 索引是快照: 本次更新中途生成的子弹要到下一次更新才会出现; 已移除的子弹 (isAdded() == false) 在查询时跳过。
+ */
+public class BulletIndex {
+    static final float cellSize = 64f;
+    static final int buckets = 1024, bucketMask = buckets - 1;
+
+    static Bullet[] bullets = new Bullet[256];
+    static int[] ownerIds = new int[256], ownerNext = new int[256], cellNext = new int[256];
+    static final int[] ownerHeads = new int[buckets], cellHeads = new int[buckets];
+    static int count, hittable;
+    /** 索引对应的逻辑更新编号 */
+    static int built = -1;
+
+    /** 遍历 owner 为 ownerId 的全部子弹 */
+    public static void each(int ownerId, Cons<Bullet> cons) {
+        build();
+        for (int i = ownerHeads[ownerId & bucketMask]; i != -1; i = ownerNext[i]) {
+            Bullet b = bullets[i];
+            if (ownerIds[i] == ownerId && b.isAdded() && ownerId(b) == ownerId) cons.get(b);
+        }
+    }
+
+    /**
+     * 范围内最近的、不属于 team 的 hittable 子弹
+     * @param team 要排除的队伍, null 表示不排除
+     * @param predicate 额外条件, 可为 null
+     */
+    public static Bullet nearestHittable(Team team, float x, float y, float range, Boolf<Bullet> predicate) {
+        build();
+        if (hittable == 0) return null;
+        Bullet closest = null;
+        float closestDist = range * range;
+        int cx0 = cell(x - range), cx1 = cell(x + range), cy0 = cell(y - range), cy1 = cell(y + range);
+
+        if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) >= buckets) {
+            //范围比整个散列表还大, 直接遍历全部 hittable 子弹
+            for (int i = 0; i < count; i++) {
+                Bullet b = bullets[i];
+                if (!b.type.hittable || !valid(b, team, predicate)) continue;
+                float dist = b.dst2(x, y);
+                if (dist < closestDist) {
+                    closestDist = dist;
+                    closest = b;
+                }
+            }
+            return closest;
+        }
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                //不同格子可能落在同一个桶, 重复访问不影响最近值
+                for (int i = cellHeads[bucket(cx, cy)]; i != -1; i = cellNext[i]) {
+                    Bullet b = bullets[i];
+                    if (!valid(b, team, predicate)) continue;
+                    float dist = b.dst2(x, y);
+                    if (dist < closestDist) {
+                        closestDist = dist;
+                        closest = b;
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    static boolean valid(Bullet b, Team team, Boolf<Bullet> predicate) {
+        return b.isAdded() && b.type != null && b.team != team && (predicate == null || predicate.get(b));
+    }
+
+    static void build() {
+        if (built == state.updateId) return;
+        built = state.updateId;
+
+        //清掉上一次的引用, 避免持有已回收到对象池的子弹
+        Arrays.fill(bullets, 0, count, null);
+        Arrays.fill(ownerHeads, -1);
+        Arrays.fill(cellHeads, -1);
+        count = hittable = 0;
+        if (bullets.length < Groups.bullet.size()) grow(Mathf.nextPowerOfTwo(Groups.bullet.size()));
+
+        for (Bullet b : Groups.bullet) {
+            int i = count++;
+            bullets[i] = b;
+            int id = ownerIds[i] = ownerId(b);
+            int h = id & bucketMask;
+            ownerNext[i] = ownerHeads[h];
+            ownerHeads[h] = i;
+
+            if (b.type != null && b.type.hittable) {
+                int c = bucket(cell(b.x), cell(b.y));
+                cellNext[i] = cellHeads[c];
+                cellHeads[c] = i;
+                hittable++;
+            }
+        }
+    }
+
+    static void grow(int size) {
+        bullets = Arrays.copyOf(bullets, size);
+        ownerIds = Arrays.copyOf(ownerIds, size);
+        ownerNext = Arrays.copyOf(ownerNext, size);
+        cellNext = Arrays.copyOf(cellNext, size);
+    }
+
+    static int ownerId(Bullet b) {
+        return b.owner instanceof Entityc e ? e.id() : -1;
+    }
+
+    static int cell(float coord) {
+        return Mathf.floor(coord / cellSize);
+    }
+
+    static int bucket(int cx, int cy) {
+        return (cx * 73856093 ^ cy * 19349663) & bucketMask;
+    }
+}
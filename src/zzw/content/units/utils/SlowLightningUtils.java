@@ -2,8 +2,8 @@ package zzw.content.units.utils;
 
 import arc.func.Boolf;
 import arc.func.Cons;
+import arc.math.Mathf;
 import arc.math.geom.Intersector;
-import mindustry.Vars;
 import mindustry.game.Team;
 import mindustry.gen.Building;
 import mindustry.gen.Unit;
@@ -16,26 +16,28 @@ import mindustry.world.Tile;
 public class SlowLightningUtils {
 
     /**
-     * 查找激光实际长度 (遇到 absorbLasers 的 tile 截断)
+     * 查找激光实际长度 (遇到 checker 返回 true 的 tile 截断, 长度为进入该格的位置)
      * 替代 PU132 Utils.findLaserLength
      */
     public static float findLaserLength(float x1, float y1, float x2, float y2, Boolf<Tile> checker) {
-        float dx = x2 - x1, dy = y2 - y1;
-        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        float len = Mathf.dst(x1, y1, x2, y2);
         if (len < 1f) return len;
-        // 沿线段每隔 tilesize 步进检测
-        float step = Vars.tilesize * 0.5f;
-        int steps = (int) Math.ceil(len / step);
-        for (int i = 0; i <= steps; i++) {
-            float t = i / (float) steps;
-            float wx = x1 + dx * t, wy = y1 + dy * t;
-            Tile tile = Vars.world.tileWorld(wx, wy);
-            if (tile != null && checker.get(tile)) {
-                // 返回截断长度
-                return len * t;
-            }
+        float t = TileRaycast.traverseTiles(x1, y1, x2, y2, checker);
+        return t < 0f ? len : len * t;
+    }
+
+    /**
+     * 查找被其他队伍 absorbLasers 方块截断后的激光长度 (结果按帧缓存, 见 TileRaycast.absorber)
+     * 是否被截断可通过 TileRaycast.hitX >= 0 判断
+     */
+    public static float findLaserLength(float x1, float y1, float x2, float y2, Team team) {
+        float len = Mathf.dst(x1, y1, x2, y2);
+        if (len < 1f) {
+            TileRaycast.hitX = TileRaycast.hitY = -1;
+            return len;
         }
-        return len;
+        float t = TileRaycast.absorber(x1, y1, x2, y2, team);
+        return t < 0f ? len : len * t;
     }
 
     /**
@@ -61,16 +63,13 @@ public class SlowLightningUtils {
             hitCons.get(unit.x, unit.y);
         });
 
-        // 检测建筑
-        for (mindustry.game.Teams.TeamData data : Vars.state.teams.present) {
-            if (data.team == team || data.buildings == null) continue;
-            for (Building b : data.buildings) {
-                if (b.team == team || b.health <= 0) continue;
-                if (Intersector.distanceSegmentPoint(x1, y1, x2, y2, b.x, b.y) > width + b.hitSize() / 2f) continue;
-                buildingCons.get(b);
-                hitCons.get(b.x, b.y);
-            }
-        }
+        // 检测建筑: 只查询线段经过的格子 (见 BuildingLineQuery)
+        BuildingLineQuery.each(team, x1, y1, x2, y2, width, b -> {
+            if (b.health <= 0) return;
+            if (Intersector.distanceSegmentPoint(x1, y1, x2, y2, b.x, b.y) > width + b.hitSize() / 2f) return;
+            buildingCons.get(b);
+            hitCons.get(b.x, b.y);
+        });
     }
 
     /** Float-Float 消费者接口 (兼容 PU132 签名) */
@@ -0,0 +1,177 @@
+package zzw.content.units.utils;
+
+import arc.func.Boolf;
+import arc.math.Mathf;
+import arc.struct.IntMap;
+import arc.struct.Seq;
+import mindustry.entities.Units;
+import mindustry.game.Team;
+import mindustry.gen.Building;
+import mindustry.gen.Teamc;
+import mindustry.gen.Unit;
+
+import static mindustry.Vars.indexer;
+import static mindustry.Vars.state;
+
+/**
+ * 按单位缓存的索敌候选
+ * <p>
+ * 触手能力的每根触手、各个武器挂载、时停能力、治疗 AI 原先各自调用 Units.closestTarget / Units.closest,
+ * 同一单位每 tick 可能做十几次空间查询。这里每个单位在 {@link #interval} 次逻辑更新内只做一次空间查询,
+ * 把覆盖所有调用方范围的敌方单位、敌方建筑、友方单位缓存下来, 各调用方只在候选中按自己的位置/范围/条件筛选。
+ * 各调用方的查询点不同 (例如各触手末端), 候选不按距离排序, 筛选时逐个计算到查询点的距离。
+ * <p>
+ * 缓存半径取各调用方需要的最大值; 单位移动后请求超出缓存覆盖范围时立即重新查询。
+ * 候选只决定"查谁", 位置、存活等条件在筛选时实时读取。
+ */
+public class TargetCache {
+    /** 候选复用的逻辑更新次数 */
+    public static int interval = 5;
+    /** 查询半径的额外余量 (覆盖单位碰撞半径与候选复用期间的移动) */
+    static final float margin = 24f;
+
+    static final IntMap<Entry> entries = new IntMap<>();
+    static final Seq<Entry> pool = new Seq<>();
+    static int lastSweep;
+
+    static class Entry {
+        Unit owner;
+        /** 敌方单位 / 友方单位 / 敌方建筑 */
+        final Seq<Unit> enemies = new Seq<>(false, 16, Unit.class), allies = new Seq<>(false, 16, Unit.class);
+        final Seq<Building> builds = new Seq<>(false, 16, Building.class);
+        float ex, ey, enemyRadius, ax, ay, allyRadius;
+        /** 上次查询时的逻辑更新编号, -1 表示没有查询过 */
+        int enemyStamp = -1, allyStamp = -1, used;
+
+        void reset(Unit owner) {
+            this.owner = owner;
+            enemies.clear();
+            allies.clear();
+            builds.clear();
+            enemyRadius = allyRadius = 0f;
+            enemyStamp = allyStamp = -1;
+        }
+    }
+
+    /**
+     * 与 Units.closestTarget(unit.team, x, y, range, unitPred, tilePred) 相同的结果:
+     * 优先返回最近的敌方单位, 没有时返回优先级最高 (同优先级最近) 的敌方建筑
+     */
+    public static Teamc closestTarget(Unit unit, float x, float y, float range, Boolf<Unit> unitPred, Boolf<Building> tilePred) {
+        Entry e = enemies(unit, x, y, range);
+        Team team = unit.team;
+
+        float range2 = range * range;
+        Unit result = null;
+        float cdist = 0f;
+        for (int i = 0; i < e.enemies.size; i++) {
+            Unit u = e.enemies.items[i];
+            if (!u.isValid() || u.dead() || u.team == team || u.team == Team.derelict || !unitPred.get(u) || !u.targetable(team) || u.inFogTo(team)) continue;
+            float dst2 = u.dst2(x, y) - (u.hitSize * u.hitSize);
+            if (dst2 < range2 && (result == null || dst2 < cdist)) {
+                result = u;
+                cdist = dst2;
+            }
+        }
+        if (result != null) return result;
+
+        if (tilePred == null) return null;
+        Building target = null;
+        float targetDist = 0f;
+        for (int i = 0; i < e.builds.size; i++) {
+            Building b = e.builds.items[i];
+            if (!b.isValid() || b.team == team || (b.team == Team.derelict && !state.rules.coreCapture)
+                || !b.block.targetable || !tilePred.get(b)) continue;
+            float dst = b.dst(x, y) - b.hitSize() / 2f;
+            if (dst > range) continue;
+            if (target == null || b.block.priority > target.block.priority
+                || (b.block.priority == target.block.priority && dst < targetDist)) {
+                target = b;
+                targetDist = dst;
+            }
+        }
+        return target;
+    }
+
+    /** 与 Units.closest(unit.team, x, y, range, pred, sort) 相同: 范围内满足条件且 sort 代价最小的友方单位 */
+    public static Unit closestAlly(Unit unit, float x, float y, float range, Boolf<Unit> pred, Units.Sortf sort) {
+        Entry e = allies(unit, x, y, range);
+        Unit result = null;
+        float cdist = 0f;
+        for (int i = 0; i < e.allies.size; i++) {
+            Unit u = e.allies.items[i];
+            if (!u.isValid() || u.team != unit.team || !u.within(x, y, range + u.hitSize / 2f) || !pred.get(u)) continue;
+            float cost = sort.cost(u, x, y);
+            if (result == null || cost < cdist) {
+                result = u;
+                cdist = cost;
+            }
+        }
+        return result;
+    }
+
+    static Entry entry(Unit unit) {
+        sweep();
+        Entry e = entries.get(unit.id);
+        if (e == null) {
+            e = pool.isEmpty() ? new Entry() : pool.pop();
+            e.reset(unit);
+            entries.put(unit.id, e);
+        } else if (e.owner != unit) {
+            e.reset(unit);
+        }
+        e.used = state.updateId;
+        return e;
+    }
+
+    static Entry enemies(Unit unit, float x, float y, float range) {
+        Entry e = entry(unit);
+        float need = Mathf.dst(e.ex, e.ey, x, y) + range;
+        if (stale(e.enemyStamp) || need > e.enemyRadius) {
+            float radius = Math.max(e.enemyRadius, Mathf.dst(unit.x, unit.y, x, y) + range + margin);
+            e.ex = unit.x;
+            e.ey = unit.y;
+            e.enemyRadius = radius;
+            e.enemyStamp = state.updateId;
+            e.enemies.clear();
+            e.builds.clear();
+            Units.nearbyEnemies(unit.team, e.ex, e.ey, radius, e.enemies::add);
+            Team team = unit.team;
+            indexer.eachBlock(null, e.ex, e.ey, radius, b -> b.team != team, e.builds::add);
+        }
+        return e;
+    }
+
+    static Entry allies(Unit unit, float x, float y, float range) {
+        Entry e = entry(unit);
+        float need = Mathf.dst(e.ax, e.ay, x, y) + range;
+        if (stale(e.allyStamp) || need > e.allyRadius) {
+            float radius = Math.max(e.allyRadius, Mathf.dst(unit.x, unit.y, x, y) + range + margin);
+            e.ax = unit.x;
+            e.ay = unit.y;
+            e.allyRadius = radius;
+            e.allyStamp = state.updateId;
+            e.allies.clear();
+            Units.nearby(unit.team, e.ax, e.ay, radius, e.allies::add);
+        }
+        return e;
+    }
+
+    static boolean stale(int stamp) {
+        return stamp == -1 || Math.abs(state.updateId - stamp) >= interval;
+    }
+
+    /** 定期回收长时间没有使用的缓存 (单位已死亡/移除或不再索敌) */
+    static void sweep() {
+        if (Math.abs(state.updateId - lastSweep) < 600) return;
+        lastSweep = state.updateId;
+        for (IntMap.Values<Entry> it = entries.values(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (Math.abs(state.updateId - e.used) >= 600 || !e.owner.isValid()) {
+                e.reset(null);
+                pool.add(e);
+                it.remove();
+            }
+        }
+    }
+}
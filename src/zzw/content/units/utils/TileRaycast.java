@@ -0,0 +1,173 @@
+package zzw.content.units.utils;
+
+import arc.func.Boolf;
+import arc.math.geom.Point2;
+import mindustry.game.Team;
+import mindustry.world.Tile;
+
+import static mindustry.Vars.state;
+import static mindustry.Vars.tilesize;
+import static mindustry.Vars.world;
+
+/**
+ * 格子射线遍历 (Amanatides-Woo 体素遍历)
+ * <p>
+ * 按线段实际穿过的顺序逐格访问, 每格只访问一次, 不会漏掉对角穿过的角落格子
+ * (半格步长采样会漏掉, world.raycastEachWorld 的 Bresenham 也会漏掉)。
+ * 遍历过程不分配对象, 命中后立即停止。
+ * <p>
+ * 最常见的判定 "被其他队伍的 absorbLasers 方块截断" 有专门的 {@link #absorber} 版本,
+ * 结果按 (起点格, 终点格, 队伍) 在每次逻辑更新内缓存, 同一帧内大量相同方向的激光只遍历一次。
+ * 缓存只记录命中的格子, 返回前仍按实际端点重新计算进入距离。
+ */
+public class TileRaycast {
+    /** 最近一次遍历命中的格子, 没有命中时为 -1 */
+    public static int hitX = -1, hitY = -1;
+
+    static final int cacheSize = 512, cacheMask = cacheSize - 1, cacheProbe = 8;
+    static final long[] cacheKeys = new long[cacheSize];
+    static final int[] cacheTeams = new int[cacheSize], cacheStamps = new int[cacheSize], cacheHits = new int[cacheSize];
+    /** 缓存对应的逻辑更新编号 ({@link mindustry.core.GameState#updateId}) */
+    static int cacheUpdate = -1, stamp;
+
+    //预先创建的回调, 参数通过静态字段传入, 避免每次调用分配 lambda
+    static Team absorbTeam;
+    static Boolf<Tile> tileCons;
+    static final TileHit absorbHit = (x, y) -> absorbs(world.tile(x, y), absorbTeam);
+    static final TileHit tileHit = (x, y) -> {
+        Tile tile = world.tile(x, y);
+        return tile != null && tileCons.get(tile);
+    };
+
+    /** 格子回调, 返回 true 表示在此格停止 */
+    public interface TileHit {
+        boolean hit(int x, int y);
+    }
+
+    /**
+     * 沿 (x1,y1)→(x2,y2) 逐格遍历, cons 返回 true 时停止。
+     * @return 停止格的进入位置在线段上的参数 t ∈ [0, 1], 没有停止时返回 -1
+     */
+    public static float traverse(float x1, float y1, float x2, float y2, TileHit cons) {
+        hitX = hitY = -1;
+        //格子坐标系: 格子 t 覆盖 [t, t + 1)
+        float ox = x1 / tilesize + 0.5f, oy = y1 / tilesize + 0.5f;
+        float dx = x2 / tilesize + 0.5f - ox, dy = y2 / tilesize + 0.5f - oy;
+        int tx = (int) Math.floor(ox), ty = (int) Math.floor(oy);
+        int ex = (int) Math.floor(ox + dx), ey = (int) Math.floor(oy + dy);
+        int sx = dx > 0 ? 1 : -1, sy = dy > 0 ? 1 : -1;
+        float deltaX = dx == 0 ? Float.POSITIVE_INFINITY : 1f / Math.abs(dx);
+        float deltaY = dy == 0 ? Float.POSITIVE_INFINITY : 1f / Math.abs(dy);
+        float maxX = dx == 0 ? Float.POSITIVE_INFINITY : (dx > 0 ? tx + 1 - ox : ox - tx) * deltaX;
+        float maxY = dy == 0 ? Float.POSITIVE_INFINITY : (dy > 0 ? ty + 1 - oy : oy - ty) * deltaY;
+        int steps = Math.abs(ex - tx) + Math.abs(ey - ty);
+        float t = 0f;
+
+        for (int i = 0; i <= steps; i++) {
+            if (cons.hit(tx, ty)) {
+                hitX = tx;
+                hitY = ty;
+                return t;
+            }
+            if (maxX < maxY) {
+                t = maxX;
+                maxX += deltaX;
+                tx += sx;
+            } else {
+                t = maxY;
+                maxY += deltaY;
+                ty += sy;
+            }
+        }
+        return -1f;
+    }
+
+    /** 与 {@link #traverse} 相同, 以 Tile 回调; 超出地图的格子跳过 */
+    public static float traverseTiles(float x1, float y1, float x2, float y2, Boolf<Tile> cons) {
+        Boolf<Tile> prev = tileCons;
+        tileCons = cons;
+        try {
+            return traverse(x1, y1, x2, y2, tileHit);
+        } finally {
+            tileCons = prev;
+        }
+    }
+
+    /** 格子是否会截断 team 的激光 (其他队伍的 absorbLasers 方块) */
+    public static boolean absorbs(Tile tile, Team team) {
+        return tile != null && tile.team() != team && tile.block() != null && tile.block().absorbLasers;
+    }
+
+    /**
+     * 第一个截断 team 激光的格子, 结果同时写入 {@link #hitX}/{@link #hitY}。
+     * @return 进入该格时在线段上的参数 t ∈ [0, 1], 没有截断时返回 -1
+     */
+    public static float absorber(float x1, float y1, float x2, float y2, Team team) {
+        if (cacheUpdate != state.updateId) {
+            cacheUpdate = state.updateId;
+            stamp++;
+        }
+        int start = Point2.pack(toTile(x1), toTile(y1)), end = Point2.pack(toTile(x2), toTile(y2));
+        long key = ((long) start << 32) | (end & 0xffffffffL);
+        int tid = team == null ? -1 : team.id;
+        int slot = (int) ((key ^ (key >>> 29) ^ (tid * 0x9E3779B9L)) * 0x9E3779B97F4A7C15L >>> 40) & cacheMask, free = -1;
+
+        for (int i = 0; i < cacheProbe; i++) {
+            int s = (slot + i) & cacheMask;
+            if (cacheStamps[s] != stamp) {
+                if (free == -1) free = s;
+                continue;
+            }
+            if (cacheKeys[s] != key || cacheTeams[s] != tid) continue;
+            free = s;
+            int hit = cacheHits[s];
+            if (hit == -1) {
+                hitX = hitY = -1;
+                return -1f;
+            }
+            float t = enter(x1, y1, x2, y2, Point2.x(hit), Point2.y(hit));
+            //端点在格子内的位置不同, 线段可能恰好擦过缓存的格子; 此时重新遍历
+            if (t >= 0f) {
+                hitX = Point2.x(hit);
+                hitY = Point2.y(hit);
+                return t;
+            }
+            break;
+        }
+
+        absorbTeam = team;
+        float t = traverse(x1, y1, x2, y2, absorbHit);
+        int s = free == -1 ? slot : free;
+        cacheStamps[s] = stamp;
+        cacheKeys[s] = key;
+        cacheTeams[s] = tid;
+        cacheHits[s] = t < 0f ? -1 : Point2.pack(hitX, hitY);
+        return t;
+    }
+
+    /** 线段进入格子 (x, y) 时的参数 t ∈ [0, 1], 不相交时返回 -1 */
+    static float enter(float x1, float y1, float x2, float y2, int x, int y) {
+        float minX = (x - 0.5f) * tilesize, maxX = (x + 0.5f) * tilesize;
+        float minY = (y - 0.5f) * tilesize, maxY = (y + 0.5f) * tilesize;
+        float dx = x2 - x1, dy = y2 - y1, t0 = 0f, t1 = 1f;
+        if (dx == 0) {
+            if (x1 < minX || x1 > maxX) return -1f;
+        } else {
+            float a = (minX - x1) / dx, b = (maxX - x1) / dx;
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+        if (dy == 0) {
+            if (y1 < minY || y1 > maxY) return -1f;
+        } else {
+            float a = (minY - y1) / dy, b = (maxY - y1) / dy;
+            t0 = Math.max(t0, Math.min(a, b));
+            t1 = Math.min(t1, Math.max(a, b));
+        }
+        return t0 <= t1 ? t0 : -1f;
+    }
+
+    static int toTile(float coord) {
+        return (int) Math.floor(coord / tilesize + 0.5f);
+    }
+}
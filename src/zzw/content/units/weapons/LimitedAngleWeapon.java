@@ -3,12 +3,12 @@ package zzw.content.units.weapons;
 import arc.math.Angles;
 import arc.math.Mathf;
 import arc.func.Boolf;
-import mindustry.entities.Units;
 import mindustry.entities.units.WeaponMount;
 import mindustry.gen.Posc;
 import mindustry.gen.Teamc;
 import mindustry.gen.Unit;
 import mindustry.type.Weapon;
+import zzw.content.units.utils.TargetCache;
 
 /**
  * 限制角度武器 (PU_V8 LimitedAngleWeapon 移植版)
@@ -49,7 +49,7 @@ public class LimitedAngleWeapon extends Weapon {
     protected Teamc findTarget(Unit unit, float x, float y, float range, boolean air, boolean ground) {
         // 只搜索锥形范围内的敌方
         Boolf<Posc> angBool = e -> angleDist(unit.rotation + (angleOffset * Mathf.sign(flipSprite)), unit.angleTo(e)) <= angleCone;
-        return Units.closestTarget(unit.team, x, y, range + Math.abs(shootY),
+        return TargetCache.closestTarget(unit, x, y, range + Math.abs(shootY),
                 u -> u.checkTarget(air, ground) && angBool.get(u),
                 t -> ground && angBool.get(t));
     }
@@ -1,9 +1,11 @@
 package zzw.content.units.weapons;
 
+import arc.func.Boolf;
 import mindustry.entities.units.WeaponMount;
 import mindustry.gen.Bullet;
 import mindustry.gen.Teamc;
 import mindustry.gen.Unit;
+import zzw.content.units.utils.BulletIndex;
 
 /**
  * 点防多管武器 (移植自 PU_V8 unity.type.weapons.PointDefenceMultiBarrelWeapon)
@@ -13,6 +15,7 @@ import mindustry.gen.Unit;
  */
 public class PointDefenceMultiBarrelWeapon extends MultiBarrelWeapon {
     static WeaponMount tmp;
+    static final Boolf<Bullet> slow = b -> b.vel.len2() < 5f * 5f;
 
     public PointDefenceMultiBarrelWeapon(String name) {
         super(name);
@@ -26,8 +29,8 @@ public class PointDefenceMultiBarrelWeapon extends MultiBarrelWeapon {
 
     @Override
     protected Teamc findTarget(Unit unit, float x, float y, float range, boolean air, boolean ground) {
-        // 查找最近的敌方子弹 (hittable 且速度足够慢)
-        return nearestBullet(x, y, range, b -> b.team != unit.team && b.type.hittable && b.vel.len2() < 5f * 5f);
+        // 查找最近的敌方子弹 (hittable 且速度足够慢), 只查询范围内的格子
+        return BulletIndex.nearestHittable(unit.team, x, y, range, slow);
     }
 
     @Override
@@ -36,19 +39,4 @@ public class PointDefenceMultiBarrelWeapon extends MultiBarrelWeapon {
         if (bullet) tmp.retarget = 5f;
         return super.checkTarget(unit, target, x, y, range) || bullet;
     }
-
-    /** 查找最近的符合条件的子弹 */
-    private static Bullet nearestBullet(float x, float y, float range, arc.func.Boolf<Bullet> predicate) {
-        Bullet closest = null;
-        float closestDist = range * range;
-        for (Bullet b : mindustry.gen.Groups.bullet) {
-            if (!predicate.get(b)) continue;
-            float dist = b.dst2(x, y);
-            if (dist < closestDist) {
-                closestDist = dist;
-                closest = b;
-            }
-        }
-        return closest;
-    }
 }